@@ -0,0 +1,120 @@
+package com.cgvsu;
+
+import com.cgvsu.math.NormalsCalculator;
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.BoundingSphere;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelTriangulator;
+import com.cgvsu.objreader.ObjReader;
+import com.cgvsu.render_engine.Camera;
+import com.cgvsu.render_engine.OffscreenRenderer;
+import com.cgvsu.render_engine.RenderSettings;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRenderer {
+    // Renders turntable views of every OBJ file in a directory to PNG without a window:
+    //   java -cp ... com.cgvsu.BatchRenderer <obj dir> <png dir> [views] [size]
+    private static final int DEFAULT_VIEWS = 8;
+    private static final int DEFAULT_SIZE = 256;
+    private static final float FOV = 1.0f;
+    private static final float ELEVATION = 0.35f;
+    private static final int BASE_COLOR = 0xFFB0B0B0;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: BatchRenderer <obj dir> <png dir> [views=" + DEFAULT_VIEWS
+                    + "] [size=" + DEFAULT_SIZE + "]");
+            System.exit(2);
+        }
+        int views = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_VIEWS;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_SIZE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int failed = renderDirectory(Path.of(args[0]), Path.of(args[1]), views, size, threads);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    public static int renderDirectory(Path input, Path output, int views, int size, int threads)
+            throws IOException, InterruptedException {
+        // One task per file. The queue holds at most two files per worker and a full queue makes the listing
+        // thread render the file itself, so only a handful of models are in memory however large the directory.
+        if (views <= 0 || size <= 0 || threads <= 0) {
+            throw new IllegalArgumentException(
+                    "Views, size and threads must be positive: " + views + ", " + size + ", " + threads);
+        }
+        Files.createDirectories(output);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadLocal<OffscreenRenderer> renderers = ThreadLocal.withInitial(OffscreenRenderer::new);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-render-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*.{obj,OBJ}")) {
+            for (Path file : files) {
+                executor.execute(() -> {
+                    try {
+                        renderFile(file, output, views, size, renderers.get());
+                    } catch (IOException | RuntimeException exception) {
+                        failed.incrementAndGet();
+                        System.err.println(file + ": " + exception.getMessage());
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        return failed.get();
+    }
+
+    static void renderFile(Path file, Path output, int views, int size, OffscreenRenderer renderer)
+            throws IOException {
+        // Same post-processing as loading a model in the viewer.
+        Model model = ObjReader.read(Files.readString(file));
+        ModelTriangulator.triangulate(model);
+        NormalsCalculator.recalculateNormals(model);
+        BoundingSphere bounds = BoundingSphere.of(model.vertices);
+        if (bounds == null) {
+            throw new IllegalArgumentException("Model has no vertices");
+        }
+
+        // Files are rendered in parallel, so each one is rasterized on its own thread.
+        RenderSettings settings = new RenderSettings(false, false, true, BASE_COLOR);
+        Vector3f center = new Vector3f(bounds.getCenterX(), bounds.getCenterY(), bounds.getCenterZ());
+        float radius = Math.max(bounds.getRadius(), 1e-3f);
+        // Far enough for the bounding sphere to fit the view.
+        float distance = radius / (float) Math.sin(FOV * 0.5f) * 1.05f;
+        String name = file.getFileName().toString();
+        String baseName = name.substring(0, name.lastIndexOf('.'));
+        List<Model> meshes = List.of(model);
+        for (int view = 0; view < views; view++) {
+            double yaw = 2.0 * Math.PI * view / views;
+            Vector3f position = new Vector3f(
+                    (float) (center.getX() + distance * Math.cos(ELEVATION) * Math.sin(yaw)),
+                    (float) (center.getY() + distance * Math.sin(ELEVATION)),
+                    (float) (center.getZ() + distance * Math.cos(ELEVATION) * Math.cos(yaw)));
+            Camera camera = new Camera(position, center, FOV, 1.0f,
+                    Math.max(distance - radius, distance * 0.01f) * 0.5f, distance + radius * 2.0f);
+            BufferedImage image = renderer.renderImage(camera, meshes, null, settings, size, size);
+            ImageIO.write(image, "png", output.resolve(String.format("%s_%02d.png", baseName, view)).toFile());
+        }
+    }
+}
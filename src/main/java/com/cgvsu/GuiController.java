@@ -2,14 +2,25 @@ package com.cgvsu;
 
 import com.cgvsu.math.NormalsCalculator;
 import com.cgvsu.math.AffineTransformations;
+import com.cgvsu.model.LevelOfDetailBuilder;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.ModelOperations;
 import com.cgvsu.model.ModelTriangulator;
 import com.cgvsu.objreader.ObjReader;
 import com.cgvsu.objwriter.ObjWriter;
+import com.cgvsu.profiling.TextureLoadEvent;
+import com.cgvsu.render_engine.ArrayTextureSampler;
 import com.cgvsu.render_engine.Camera;
-import com.cgvsu.render_engine.RenderEngine;
+import com.cgvsu.render_engine.CullMode;
+import com.cgvsu.render_engine.FrameBuffer;
+import com.cgvsu.render_engine.FramePresenter;
+import com.cgvsu.render_engine.MipmapTexture;
+import com.cgvsu.render_engine.ModelSnapshotCache;
+import com.cgvsu.render_engine.RenderLoop;
 import com.cgvsu.render_engine.RenderSettings;
+import com.cgvsu.render_engine.RenderStats;
+import com.cgvsu.render_engine.SceneSnapshot;
+import com.cgvsu.render_engine.TextureSampler;
 import com.cgvsu.scene.CameraGizmoFactory;
 import com.cgvsu.scene.CameraManager;
 import com.cgvsu.scene.SceneCamera;
@@ -22,6 +33,8 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Alert;
 import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.Label;
@@ -30,6 +43,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
@@ -58,6 +72,9 @@ public class GuiController {
     @FXML
     private Canvas canvas;
 
+    @FXML
+    private ImageView frameView;
+
     @FXML
     private ListView<SceneModel> modelListView;
 
@@ -124,6 +141,33 @@ public class GuiController {
     @FXML
     private CheckMenuItem showCamerasMenuItem;
 
+    @FXML
+    private CheckMenuItem parallelRasterMenuItem;
+
+    @FXML
+    private CheckMenuItem backfaceCullingMenuItem;
+
+    @FXML
+    private CheckMenuItem depthPrePassMenuItem;
+
+    @FXML
+    private CheckMenuItem deferredShadingMenuItem;
+
+    @FXML
+    private CheckMenuItem vectorRasterMenuItem;
+
+    @FXML
+    private CheckMenuItem adaptiveResolutionMenuItem;
+
+    @FXML
+    private CheckMenuItem levelOfDetailMenuItem;
+
+    @FXML
+    private CheckMenuItem mipmappingMenuItem;
+
+    @FXML
+    private CheckMenuItem statsHudMenuItem;
+
     @FXML
     private ColorPicker baseColorPicker;
 
@@ -140,12 +184,22 @@ public class GuiController {
     private VBox cameraSection;
 
     private final List<SceneModel> sceneModels = new ArrayList<>();
-    private Image texture = null;
+    // Converted once when the texture is loaded, mip levels included; frames share them through their snapshots.
+    private ArrayTextureSampler texture = null;
+    private MipmapTexture textureMipmaps = null;
 
     private final CameraManager cameraManager = new CameraManager();
     private final RenderSettings renderSettings = new RenderSettings(false, true, true, 0xFFB0B0B0);
+    // Frames are drawn on a separate render thread; the UI thread only snapshots the scene and presents results.
+    private final RenderLoop renderLoop = new RenderLoop(error -> Platform.runLater(() -> showRenderError(error)));
+    private final ModelSnapshotCache modelSnapshots = new ModelSnapshotCache();
+    private final LevelOfDetailBuilder levelsOfDetail = new LevelOfDetailBuilder();
+    private FramePresenter framePresenter;
 
     private boolean showCameraGizmos = true;
+    // The overlay is drawn on the input canvas above the frame, so toggling it needs no new frame.
+    private boolean showStatsHud = false;
+    private RenderStats presentedStats;
     private double lastMouseX;
     private double lastMouseY;
     private float orbitYaw = 0.0F;
@@ -154,6 +208,19 @@ public class GuiController {
 
     private Timeline timeline;
     private boolean keyHandlerInstalled = false;
+    // A scene that fails to render fails again on every change; one dialog at a time is enough.
+    private boolean renderErrorShown = false;
+
+    // Inputs of the last submitted frame; the timeline only renders again when one of them changes.
+    private long lastCameraManagerVersion = -1;
+    private long lastSettingsVersion = -1;
+    private List<SceneModel> lastSceneModels = List.of();
+    private long lastSceneModelsVersion = -1;
+    private TextureSampler lastTexture;
+    private boolean lastShowCameraGizmos;
+    private int lastWidth = -1;
+    private int lastHeight = -1;
+    private boolean sceneEmpty = true;
 
     @FXML
     private void initialize() {
@@ -178,6 +245,8 @@ public class GuiController {
             Platform.runLater(canvasPane::requestFocus);
         }
 
+        // Frames are shown through an image view under the canvas; the canvas itself only receives input.
+        framePresenter = new FramePresenter(frameView);
         timeline = new Timeline();
         timeline.setCycleCount(Animation.INDEFINITE);
 
@@ -185,29 +254,54 @@ public class GuiController {
             double width = canvas.getWidth();
             double height = canvas.getHeight();
 
-            canvas.getGraphicsContext2D().clearRect(0, 0, width, height);
             Camera activeCamera = getActiveCamera();
-            if (activeCamera == null) {
-                return;
+            if (activeCamera != null) {
+                activeCamera.setAspectRatio((float) (width / height));
             }
-            activeCamera.setAspectRatio((float) (width / height));
 
-            List<Model> renderModels = new ArrayList<>();
-            for (SceneModel sceneModel : sceneModels) {
-                renderModels.add(sceneModel.getModel());
+            // Render on demand: an idle scene costs only this comparison per tick.
+            boolean levelsArrived = levelsOfDetail.applyCompleted();
+            if (frameInputsChanged((int) width, (int) height) || levelsArrived) {
+                List<Model> liveModels = new ArrayList<>();
+                List<Model> renderModels = new ArrayList<>();
+                for (SceneModel sceneModel : sceneModels) {
+                    liveModels.add(sceneModel.getModel());
+                    Model snapshot = modelSnapshots.snapshot(sceneModel.getModel());
+                    if (renderSettings.isLevelOfDetail()) {
+                        // Levels are simplified in the background from the snapshot; until they arrive the full
+                        // model is drawn.
+                        levelsOfDetail.request(sceneModel.getModel(), snapshot);
+                    }
+                    renderModels.add(snapshot);
+                }
+                modelSnapshots.retainAll(liveModels);
+                levelsOfDetail.retainAll(liveModels);
+                if (showCameraGizmos) {
+                    // Gizmos are rebuilt for every frame and never edited, so they need no copy.
+                    renderModels.addAll(buildCameraGizmos());
+                }
+                sceneEmpty = activeCamera == null || renderModels.isEmpty();
+                if (!sceneEmpty) {
+                    renderLoop.submit(new SceneSnapshot(
+                            activeCamera, renderModels, textureForFrame(), renderSettings,
+                            (int) width, (int) height));
+                }
             }
-            if (showCameraGizmos) {
-                renderModels.addAll(buildCameraGizmos());
+            if (sceneEmpty) {
+                framePresenter.clear();
+                if (presentedStats != null) {
+                    presentedStats = null;
+                    drawStatsHud();
+                }
+                return;
             }
-            if (!renderModels.isEmpty()) {
-                RenderEngine.renderModels(
-                        canvas.getGraphicsContext2D(),
-                        activeCamera,
-                        renderModels,
-                        (int) width,
-                        (int) height,
-                        texture,
-                        renderSettings);
+
+            // A slow frame only delays this; the UI thread keeps handling input at the timeline rate.
+            FrameBuffer completed = renderLoop.pollFrame();
+            if (completed != null) {
+                framePresenter.present(completed, width, height);
+                presentedStats = completed.getStats();
+                drawStatsHud();
             }
         });
 
@@ -286,7 +380,18 @@ public class GuiController {
             return;
         }
 
-        texture = new Image(file.toURI().toString());
+        TextureLoadEvent event = new TextureLoadEvent();
+        event.begin();
+        Image image = new Image(file.toURI().toString());
+        event.commit(TextureLoadEvent.DECODE, image.getUrl(), (int) image.getWidth(), (int) image.getHeight(),
+                file.length());
+        texture = ArrayTextureSampler.fromImage(image);
+        // Built here rather than on the first mipmapped frame, so switching the mode on never stalls the renderer.
+        textureMipmaps = MipmapTexture.build(texture, image.getUrl());
+    }
+
+    private TextureSampler textureForFrame() {
+        return renderSettings.isMipmapping() ? textureMipmaps : texture;
     }
 
     @FXML
@@ -325,6 +430,34 @@ public class GuiController {
         if (showCamerasMenuItem != null) {
             showCameraGizmos = showCamerasMenuItem.isSelected();
         }
+        if (parallelRasterMenuItem != null) {
+            renderSettings.setParallelRasterization(parallelRasterMenuItem.isSelected());
+        }
+        if (backfaceCullingMenuItem != null) {
+            renderSettings.setCullMode(backfaceCullingMenuItem.isSelected() ? CullMode.BACK : CullMode.NONE);
+        }
+        if (depthPrePassMenuItem != null) {
+            renderSettings.setDepthPrePass(depthPrePassMenuItem.isSelected());
+        }
+        if (deferredShadingMenuItem != null) {
+            renderSettings.setDeferredShading(deferredShadingMenuItem.isSelected());
+        }
+        if (vectorRasterMenuItem != null) {
+            renderSettings.setVectorRasterization(vectorRasterMenuItem.isSelected());
+        }
+        if (adaptiveResolutionMenuItem != null) {
+            renderSettings.setAdaptiveResolution(adaptiveResolutionMenuItem.isSelected());
+        }
+        if (levelOfDetailMenuItem != null) {
+            renderSettings.setLevelOfDetail(levelOfDetailMenuItem.isSelected());
+        }
+        if (mipmappingMenuItem != null) {
+            renderSettings.setMipmapping(mipmappingMenuItem.isSelected());
+        }
+        if (statsHudMenuItem != null && statsHudMenuItem.isSelected() != showStatsHud) {
+            showStatsHud = statsHudMenuItem.isSelected();
+            drawStatsHud();
+        }
         if (baseColorPicker != null) {
             renderSettings.setBaseColor(colorToArgb(baseColorPicker.getValue()));
         }
@@ -385,6 +518,7 @@ public class GuiController {
         float y = parseFloat(translateYField, 0.0f);
         float z = parseFloat(translateZField, 0.0f);
         AffineTransformations.translate(selected.getModel().vertices, x, y, z);
+        selected.getModel().markModified();
     }
 
     @FXML
@@ -409,6 +543,7 @@ public class GuiController {
         float y = parseFloat(scaleYField, 1.0f);
         float z = parseFloat(scaleZField, 1.0f);
         AffineTransformations.scale(selected.getModel().vertices, x, y, z);
+        selected.getModel().markModified();
     }
 
     @FXML
@@ -572,6 +707,79 @@ public class GuiController {
         focusSceneOnModels();
     }
 
+    public void shutdown() {
+        // Called when the application stops: ends the timeline and the background threads.
+        if (timeline != null) {
+            timeline.stop();
+        }
+        renderLoop.close();
+        levelsOfDetail.close();
+    }
+
+    private void showRenderError(Throwable error) {
+        if (renderErrorShown) {
+            return;
+        }
+        renderErrorShown = true;
+        Alert alert = new Alert(Alert.AlertType.ERROR, String.valueOf(error));
+        alert.setHeaderText("Rendering failed");
+        alert.setOnHidden(event -> renderErrorShown = false);
+        alert.show();
+    }
+
+    private void drawStatsHud() {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (!showStatsHud || presentedStats == null) {
+            return;
+        }
+        RenderStats stats = presentedStats;
+        String[] lines = {
+                String.format("%dx%d  render %.2f ms", stats.getWidth(), stats.getHeight(), stats.getFrameNanos() / 1e6),
+                String.format("transform %.2f  raster %.2f  lighting %.2f  present %.2f ms",
+                        stats.getTransformNanos() / 1e6, stats.getRasterNanos() / 1e6,
+                        stats.getLightingNanos() / 1e6, stats.getPresentNanos() / 1e6),
+                String.format("models %d, culled %d", stats.getModelsSubmitted(), stats.getModelsCulled()),
+                String.format("triangles %d, culled %d, degenerate %d",
+                        stats.getTrianglesSubmitted(), stats.getTrianglesCulled(), stats.getTrianglesDegenerate()),
+                String.format("pixels tested %d, written %d, overdraw %.2f",
+                        stats.getPixelsTested(), stats.getPixelsWritten(), stats.getOverdraw())
+        };
+        graphics.setFill(Color.color(0, 0, 0, 0.6));
+        graphics.fillRect(8, 8, 440, lines.length * 16 + 8);
+        graphics.setFill(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            graphics.fillText(lines[i], 14, 24 + i * 16);
+        }
+    }
+
+    private boolean frameInputsChanged(int width, int height) {
+        // Every counter only grows, so an unchanged value means the corresponding input was not touched.
+        long sceneModelsVersion = 0;
+        for (SceneModel sceneModel : sceneModels) {
+            sceneModelsVersion += sceneModel.getVersion();
+        }
+        boolean changed = cameraManager.getVersion() != lastCameraManagerVersion
+                || renderSettings.getVersion() != lastSettingsVersion
+                || !sceneModels.equals(lastSceneModels)
+                || sceneModelsVersion != lastSceneModelsVersion
+                || texture != lastTexture
+                || showCameraGizmos != lastShowCameraGizmos
+                || width != lastWidth
+                || height != lastHeight;
+        if (changed) {
+            lastCameraManagerVersion = cameraManager.getVersion();
+            lastSettingsVersion = renderSettings.getVersion();
+            lastSceneModels = List.copyOf(sceneModels);
+            lastSceneModelsVersion = sceneModelsVersion;
+            lastTexture = texture;
+            lastShowCameraGizmos = showCameraGizmos;
+            lastWidth = width;
+            lastHeight = height;
+        }
+        return changed;
+    }
+
     private Camera getActiveCamera() {
         SceneCamera active = cameraManager.getActive();
         return active == null ? null : active.getCamera();
@@ -741,6 +949,33 @@ public class GuiController {
         if (showCamerasMenuItem != null) {
             showCamerasMenuItem.setSelected(showCameraGizmos);
         }
+        if (parallelRasterMenuItem != null) {
+            parallelRasterMenuItem.setSelected(renderSettings.isParallelRasterization());
+        }
+        if (backfaceCullingMenuItem != null) {
+            backfaceCullingMenuItem.setSelected(renderSettings.getCullMode() == CullMode.BACK);
+        }
+        if (depthPrePassMenuItem != null) {
+            depthPrePassMenuItem.setSelected(renderSettings.isDepthPrePass());
+        }
+        if (deferredShadingMenuItem != null) {
+            deferredShadingMenuItem.setSelected(renderSettings.isDeferredShading());
+        }
+        if (vectorRasterMenuItem != null) {
+            vectorRasterMenuItem.setSelected(renderSettings.isVectorRasterization());
+        }
+        if (adaptiveResolutionMenuItem != null) {
+            adaptiveResolutionMenuItem.setSelected(renderSettings.isAdaptiveResolution());
+        }
+        if (levelOfDetailMenuItem != null) {
+            levelOfDetailMenuItem.setSelected(renderSettings.isLevelOfDetail());
+        }
+        if (mipmappingMenuItem != null) {
+            mipmappingMenuItem.setSelected(renderSettings.isMipmapping());
+        }
+        if (statsHudMenuItem != null) {
+            statsHudMenuItem.setSelected(showStatsHud);
+        }
         if (baseColorPicker != null) {
             baseColorPicker.setValue(argbToColor(renderSettings.getBaseColor()));
         }
@@ -11,10 +11,14 @@ import java.util.Objects;
 
 public class Simple3DViewer extends Application {
 
+    private GuiController controller;
+
     @Override
     public void start(Stage stage) throws IOException {
         // Point 4: bootstrap UI and theme.
-        Parent viewport = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("fxml/gui.fxml")));
+        FXMLLoader loader = new FXMLLoader(Objects.requireNonNull(getClass().getResource("fxml/gui.fxml")));
+        Parent viewport = loader.load();
+        controller = loader.getController();
 
         Scene scene = new Scene(viewport);
         scene.getStylesheets().add("/com/cgvsu/styles/app.css");
@@ -29,6 +33,13 @@ public class Simple3DViewer extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -28,6 +28,7 @@ public class AffineTransformations {
             Vector3f rotatedVertex = rotatePoint(model.vertices.get(i), angleX, angleY, angleZ);
             model.vertices.set(i, rotatedVertex);
         }
+        model.markModified();
     }
 
     // Вспомогательный метод для поворота точки вокруг осей X, Y и Z
@@ -3,6 +3,7 @@ package com.cgvsu.math;
 import com.cgvsu.math.vectors.Vector3f;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.Polygon;
+import com.cgvsu.profiling.NormalsEvent;
 
 import java.util.ArrayList;
 
@@ -12,6 +13,8 @@ public final class NormalsCalculator {
 
     public static void recalculateNormals(Model model) {
         // Ксюня: пересчет нормалей после загрузки/триангуляции (пункт 12).
+        NormalsEvent event = new NormalsEvent();
+        event.begin();
         int vertexCount = model.vertices.size();
         ArrayList<Vector3f> accumulators = new ArrayList<>(vertexCount);
         for (int i = 0; i < vertexCount; i++) {
@@ -47,5 +50,11 @@ public final class NormalsCalculator {
         for (Polygon polygon : model.polygons) {
             polygon.setNormalIndices(new ArrayList<>(polygon.getVertexIndices()));
         }
+        model.markModified();
+        if (event.shouldCommit()) {
+            event.vertices = vertexCount;
+            event.polygons = model.polygons.size();
+            event.commit();
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.cgvsu.math.matrices;
 
+import com.cgvsu.math.MathUtil;
 import com.cgvsu.math.vectors.Vector3f;
 import com.cgvsu.math.vectors.Vector4f;
 
@@ -172,6 +173,52 @@ public class Matrix4 implements Matrix<Matrix4, Vector4f> {
         return new Matrix4(result);
     }
 
+    // Обратная матрица (метод Гаусса-Жордана с выбором главного элемента)
+    public Matrix4 inv() {
+        double[][] a = new double[4][8];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                a[i][j] = data[i][j];
+            }
+            a[i][4 + i] = 1.0;
+        }
+
+        for (int col = 0; col < 4; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 4; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            checkNullPivot(a[pivot][col]);
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+
+            double invPivot = 1.0 / a[col][col];
+            for (int j = 0; j < 8; j++) {
+                a[col][j] *= invPivot;
+            }
+            for (int row = 0; row < 4; row++) {
+                if (row == col || a[row][col] == 0.0) {
+                    continue;
+                }
+                double factor = a[row][col];
+                for (int j = 0; j < 8; j++) {
+                    a[row][j] -= factor * a[col][j];
+                }
+            }
+        }
+
+        float[][] result = new float[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                result[i][j] = (float) a[i][4 + j];
+            }
+        }
+        return new Matrix4(result);
+    }
+
     // ------------------------- АФИННЫЕ ПРЕОБРАЗОВАНИЯ -----------------------------------
     // Перенос
     public static Matrix4 translate(float tx, float ty, float tz) {
@@ -305,6 +352,14 @@ public class Matrix4 implements Matrix<Matrix4, Vector4f> {
         }
     }
 
+    // Вырожденная матрица при обращении
+    private static void checkNullPivot(double pivot) {
+        if (Math.abs(pivot) < MathUtil.EPS) {
+            throw new ArithmeticException("Матрица является вырожденной. Ведущий элемент равен: " +
+                    Math.abs(pivot));
+        }
+    }
+
     // Проверка вектора на null
     private static void checkNullVector(Vector4f v4) {
         if (v4 == null) {
@@ -0,0 +1,69 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.List;
+
+public final class BoundingSphere {
+    private final float centerX;
+    private final float centerY;
+    private final float centerZ;
+    private final float radius;
+
+    public BoundingSphere(float centerX, float centerY, float centerZ, float radius) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.radius = radius;
+    }
+
+    public static BoundingSphere of(List<Vector3f> points) {
+        // Centered on the bounding box: not minimal, but one pass to find the box and one for the radius.
+        if (points.isEmpty()) {
+            return null;
+        }
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float maxZ = Float.NEGATIVE_INFINITY;
+        for (Vector3f point : points) {
+            minX = Math.min(minX, point.getX());
+            minY = Math.min(minY, point.getY());
+            minZ = Math.min(minZ, point.getZ());
+            maxX = Math.max(maxX, point.getX());
+            maxY = Math.max(maxY, point.getY());
+            maxZ = Math.max(maxZ, point.getZ());
+        }
+        float centerX = (minX + maxX) * 0.5f;
+        float centerY = (minY + maxY) * 0.5f;
+        float centerZ = (minZ + maxZ) * 0.5f;
+        double maxDistanceSquared = 0;
+        for (Vector3f point : points) {
+            double dx = point.getX() - centerX;
+            double dy = point.getY() - centerY;
+            double dz = point.getZ() - centerZ;
+            maxDistanceSquared = Math.max(maxDistanceSquared, dx * dx + dy * dy + dz * dz);
+        }
+        // Round up so float error never leaves a vertex outside.
+        float radius = Math.nextUp((float) Math.sqrt(maxDistanceSquared));
+        return new BoundingSphere(centerX, centerY, centerZ, radius);
+    }
+
+    public float getCenterX() {
+        return centerX;
+    }
+
+    public float getCenterY() {
+        return centerY;
+    }
+
+    public float getCenterZ() {
+        return centerZ;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cgvsu.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class EdgeList {
+    // Unique triangle edges in order of first use, so a wireframe draws an edge shared by two triangles once.
+    private final int[] edgeVertices;
+    private final int[] polygonEdges;
+    private final int edgeCount;
+
+    private EdgeList(int[] edgeVertices, int[] polygonEdges, int edgeCount) {
+        this.edgeVertices = edgeVertices;
+        this.polygonEdges = polygonEdges;
+        this.edgeCount = edgeCount;
+    }
+
+    public static EdgeList of(List<Polygon> polygons) {
+        // Only triangles get edges, as only triangles are rasterized; other polygons map to -1.
+        int polygonCount = polygons.size();
+        int[] polygonEdges = new int[polygonCount * 3];
+        Arrays.fill(polygonEdges, -1);
+        int[] edgeVertices = new int[polygonCount * 6];
+        int edgeCount = 0;
+
+        // Open addressing over packed vertex pairs; a load factor of at most one half keeps probes short.
+        int capacity = Integer.highestOneBit(Math.max(1, polygonCount * 3)) << 2;
+        long[] keys = new long[capacity];
+        int[] values = new int[capacity];
+        Arrays.fill(keys, -1L);
+        int mask = capacity - 1;
+
+        for (int polygon = 0; polygon < polygonCount; polygon++) {
+            List<Integer> indices = polygons.get(polygon).getVertexIndices();
+            if (indices.size() != 3) {
+                continue;
+            }
+            for (int corner = 0; corner < 3; corner++) {
+                int a = indices.get(corner);
+                int b = indices.get(corner == 2 ? 0 : corner + 1);
+                long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+                int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+                while (keys[slot] != -1L && keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                if (keys[slot] == -1L) {
+                    keys[slot] = key;
+                    values[slot] = edgeCount;
+                    edgeVertices[edgeCount * 2] = a;
+                    edgeVertices[edgeCount * 2 + 1] = b;
+                    edgeCount++;
+                }
+                polygonEdges[polygon * 3 + corner] = values[slot];
+            }
+        }
+        return new EdgeList(edgeVertices, polygonEdges, edgeCount);
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int[] getEdgeVertices() {
+        // Two vertex indices per edge.
+        return edgeVertices;
+    }
+
+    public int[] getPolygonEdges() {
+        // Three edge indices per polygon: corner 0-1, 1-2 and 2-0.
+        return polygonEdges;
+    }
+}
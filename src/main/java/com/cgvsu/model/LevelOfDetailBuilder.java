@@ -0,0 +1,107 @@
+package com.cgvsu.model;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class LevelOfDetailBuilder implements AutoCloseable {
+    // Simplifies models on a background thread. Requests and results are handled on the thread that owns the
+    // models; the background thread only reads the private copy passed with a request and the live version.
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lod");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Model, Long> requested = new IdentityHashMap<>();
+    // At most one waiting job per model: a newer request replaces the job that has not started yet, so edits
+    // in quick succession queue one simplification, not one per edit. Guarded by itself.
+    private final Map<Model, Job> waiting = new IdentityHashMap<>();
+    private final Queue<Result> completed = new ConcurrentLinkedQueue<>();
+
+    public void request(Model model, Model snapshot) {
+        // The snapshot is a copy of the model at its current version that nobody edits (see ModelSnapshotCache).
+        // Cheap when the levels for the current geometry are already built or on their way.
+        long version = model.getVersion();
+        Long requestedVersion = requested.get(model);
+        if (requestedVersion != null && requestedVersion == version) {
+            return;
+        }
+        requested.put(model, version);
+        boolean queued;
+        synchronized (waiting) {
+            queued = waiting.put(model, new Job(version, snapshot)) != null;
+        }
+        if (!queued) {
+            executor.execute(() -> build(model));
+        }
+    }
+
+    public boolean applyCompleted() {
+        // Attaches finished levels to their models; returns whether any model got new levels.
+        boolean applied = false;
+        Result result;
+        while ((result = completed.poll()) != null) {
+            if (result.model.getVersion() == result.version) {
+                result.model.setLevelsOfDetail(result.levels, result.version);
+                applied = true;
+            }
+        }
+        return applied;
+    }
+
+    public void retainAll(Collection<Model> liveModels) {
+        // Forgets removed models, so a model added again is simplified again.
+        Map<Model, Boolean> live = new IdentityHashMap<>();
+        for (Model model : liveModels) {
+            live.put(model, Boolean.TRUE);
+        }
+        requested.keySet().retainAll(live.keySet());
+        synchronized (waiting) {
+            waiting.keySet().retainAll(live.keySet());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void build(Model model) {
+        Job job;
+        synchronized (waiting) {
+            job = waiting.remove(model);
+        }
+        // Gone when the model was removed; stale when it was edited again and the next request is still to come.
+        if (job == null || model.getVersion() != job.version) {
+            return;
+        }
+        completed.add(new Result(model, job.version, ModelSimplifier.buildLevels(job.source)));
+    }
+
+    private static final class Job {
+        private final long version;
+        private final Model source;
+
+        private Job(long version, Model source) {
+            this.version = version;
+            this.source = source;
+        }
+    }
+
+    private static final class Result {
+        private final Model model;
+        private final long version;
+        private final List<Model> levels;
+
+        private Result(Model model, long version, List<Model> levels) {
+            this.model = model;
+            this.version = version;
+            this.levels = levels;
+        }
+    }
+}
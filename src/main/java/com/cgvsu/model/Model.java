@@ -10,4 +10,56 @@ public class Model {
     public ArrayList<Vector2f> textureVertices = new ArrayList<Vector2f>();
     public ArrayList<Vector3f> normals = new ArrayList<Vector3f>();
     public ArrayList<Polygon> polygons = new ArrayList<Polygon>();
+
+    private BoundingSphere boundingSphere;
+    private List<Vector3f> boundedVertices;
+    private int boundedVertexCount;
+    private EdgeList edgeList;
+    private List<Polygon> edgePolygons;
+    private int edgePolygonCount;
+    // Volatile: background work started for one version checks whether the model has moved on.
+    private volatile long version;
+    private List<Model> levelsOfDetail = List.of();
+    private long levelsOfDetailVersion = -1;
+
+    public BoundingSphere getBoundingSphere() {
+        // Replacing the list or changing its size is detected here; in-place edits must call markModified().
+        if (boundingSphere == null || boundedVertices != vertices || boundedVertexCount != vertices.size()) {
+            boundingSphere = BoundingSphere.of(vertices);
+            boundedVertices = vertices;
+            boundedVertexCount = vertices.size();
+        }
+        return boundingSphere;
+    }
+
+    public EdgeList getEdgeList() {
+        // Cached like the bounding sphere; in-place edits of polygon indices must call markModified().
+        if (edgeList == null || edgePolygons != polygons || edgePolygonCount != polygons.size()) {
+            edgeList = EdgeList.of(polygons);
+            edgePolygons = polygons;
+            edgePolygonCount = polygons.size();
+        }
+        return edgeList;
+    }
+
+    public void markModified() {
+        boundingSphere = null;
+        edgeList = null;
+        version++;
+    }
+
+    public long getVersion() {
+        // Bumped by markModified(), so caches of derived data can tell a stale copy from a current one.
+        return version;
+    }
+
+    public List<Model> getLevelsOfDetail() {
+        // Simplified copies, finest first; levels built from an older version of the geometry are ignored.
+        return levelsOfDetailVersion == version ? levelsOfDetail : List.of();
+    }
+
+    public void setLevelsOfDetail(List<Model> levelsOfDetail, long sourceVersion) {
+        this.levelsOfDetail = List.copyOf(levelsOfDetail);
+        this.levelsOfDetailVersion = sourceVersion;
+    }
 }
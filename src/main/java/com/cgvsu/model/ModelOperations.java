@@ -10,6 +10,7 @@ public class ModelOperations {
             return false;
         }
         model.polygons.remove(polygonIndex);
+        model.markModified();
         return true;
     }
 
@@ -45,6 +46,7 @@ public class ModelOperations {
             }
         }
 
+        model.markModified();
         return true;
     }
 
@@ -106,5 +108,6 @@ public class ModelOperations {
             copyPolygon.setNormalIndices(new ArrayList<>(polygon.getNormalIndices()));
             target.polygons.add(copyPolygon);
         }
+        target.markModified();
     }
 }
@@ -0,0 +1,491 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.NormalsCalculator;
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public final class ModelSimplifier {
+    // Below this size a level would save too little to be worth its memory.
+    static final int MIN_LEVEL_TRIANGLES = 256;
+    private static final int MAX_LEVELS = 4;
+    // Open borders get a steep penalty, so the outline of a part does not shrink away.
+    private static final double BOUNDARY_WEIGHT = 1000.0;
+
+    private ModelSimplifier() {
+    }
+
+    public static List<Model> buildLevels(Model model) {
+        // Levels from finest to coarsest; each halves the triangles of the previous one and is simplified from it.
+        List<Model> levels = new ArrayList<>();
+        Model current = model;
+        int triangles = countTriangles(model);
+        while (levels.size() < MAX_LEVELS && triangles / 2 >= MIN_LEVEL_TRIANGLES) {
+            Model level = simplify(current, triangles / 2);
+            int levelTriangles = level.polygons.size();
+            if (levelTriangles > triangles * 3 / 4) {
+                // Collapses are being rejected to avoid folds; a level this close to its parent saves nothing.
+                break;
+            }
+            levels.add(level);
+            current = level;
+            triangles = levelTriangles;
+        }
+        return levels;
+    }
+
+    public static Model simplify(Model model, int targetTriangles) {
+        // Garland-Heckbert edge collapse: the cheapest collapse by quadric error is applied until the target is met.
+        if (targetTriangles < 0) {
+            throw new IllegalArgumentException("Target triangle count must not be negative: " + targetTriangles);
+        }
+        Mesh mesh = new Mesh(model);
+        mesh.collapseUntil(targetTriangles);
+        return mesh.toModel(model);
+    }
+
+    static int countTriangles(Model model) {
+        int triangles = 0;
+        for (Polygon polygon : model.polygons) {
+            triangles += Math.max(0, polygon.getVertexIndices().size() - 2);
+        }
+        return triangles;
+    }
+
+    private static final class Mesh {
+        private final double[] positions;
+        // Symmetric 4x4 quadric per vertex, upper triangle: aa ab ac ad bb bc bd cc cd dd.
+        private final double[] quadrics;
+        private final boolean[] removed;
+        private final int[] stamps;
+        private final int[][] vertexFaces;
+        private final int[] vertexFaceCounts;
+        private final int[] marks;
+        private int markStamp;
+
+        private int[] faceVertices;
+        private int[] faceTextures;
+        private boolean[] faceRemoved;
+        private int faceCount;
+        private int liveFaces;
+
+        private final PriorityQueue<Collapse> queue = new PriorityQueue<>();
+        // Scratch face normals, reused by every quadric and fold test.
+        private final double[] normal = new double[3];
+        private final double[] movedNormal = new double[3];
+
+        private Mesh(Model model) {
+            int vertexCount = model.vertices.size();
+            positions = new double[vertexCount * 3];
+            for (int i = 0; i < vertexCount; i++) {
+                Vector3f vertex = model.vertices.get(i);
+                positions[i * 3] = vertex.getX();
+                positions[i * 3 + 1] = vertex.getY();
+                positions[i * 3 + 2] = vertex.getZ();
+            }
+            quadrics = new double[vertexCount * 10];
+            removed = new boolean[vertexCount];
+            stamps = new int[vertexCount];
+            vertexFaces = new int[vertexCount][];
+            vertexFaceCounts = new int[vertexCount];
+            marks = new int[vertexCount];
+
+            int capacity = countTriangles(model);
+            faceVertices = new int[capacity * 3];
+            faceTextures = new int[capacity * 3];
+            faceRemoved = new boolean[capacity];
+            for (Polygon polygon : model.polygons) {
+                // Polygons are fanned the same way ModelTriangulator does it.
+                ArrayList<Integer> vertexIndices = polygon.getVertexIndices();
+                ArrayList<Integer> textureIndices = polygon.getTextureVertexIndices();
+                boolean hasTexture = textureIndices.size() == vertexIndices.size();
+                for (int i = 1; i < vertexIndices.size() - 1; i++) {
+                    addFace(
+                            vertexIndices.get(0), vertexIndices.get(i), vertexIndices.get(i + 1),
+                            hasTexture ? textureIndices.get(0) : -1,
+                            hasTexture ? textureIndices.get(i) : -1,
+                            hasTexture ? textureIndices.get(i + 1) : -1);
+                }
+            }
+
+            Map<Long, Integer> edgeFaces = new HashMap<>();
+            for (int face = 0; face < faceCount; face++) {
+                addFaceQuadric(face);
+                for (int corner = 0; corner < 3; corner++) {
+                    long key = edgeKey(faceVertices[face * 3 + corner], faceVertices[face * 3 + (corner + 1) % 3]);
+                    // An edge seen once keeps its face; a shared edge is marked with -1.
+                    edgeFaces.merge(key, face, (previous, current) -> -1);
+                }
+            }
+            for (Map.Entry<Long, Integer> edge : edgeFaces.entrySet()) {
+                int a = (int) (edge.getKey() >>> 32);
+                int b = (int) (long) edge.getKey();
+                if (edge.getValue() >= 0) {
+                    addBoundaryQuadric(a, b, edge.getValue());
+                }
+            }
+            for (Long edge : edgeFaces.keySet()) {
+                queue.add(candidate((int) (edge >>> 32), (int) (long) edge));
+            }
+        }
+
+        private void addFace(int v0, int v1, int v2, int t0, int t1, int t2) {
+            if (v0 == v1 || v1 == v2 || v2 == v0) {
+                return;
+            }
+            int face = faceCount++;
+            faceVertices[face * 3] = v0;
+            faceVertices[face * 3 + 1] = v1;
+            faceVertices[face * 3 + 2] = v2;
+            faceTextures[face * 3] = t0;
+            faceTextures[face * 3 + 1] = t1;
+            faceTextures[face * 3 + 2] = t2;
+            appendFace(v0, face);
+            appendFace(v1, face);
+            appendFace(v2, face);
+            liveFaces++;
+        }
+
+        private void appendFace(int vertex, int face) {
+            int[] faces = vertexFaces[vertex];
+            int count = vertexFaceCounts[vertex];
+            if (faces == null) {
+                faces = new int[8];
+                vertexFaces[vertex] = faces;
+            } else if (count == faces.length) {
+                faces = Arrays.copyOf(faces, count * 2);
+                vertexFaces[vertex] = faces;
+            }
+            faces[count] = face;
+            vertexFaceCounts[vertex] = count + 1;
+        }
+
+        private void addFaceQuadric(int face) {
+            faceNormal(face, -1, 0, 0, 0, normal);
+            double length = Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1] + normal[2] * normal[2]);
+            if (length < 1e-12) {
+                return;
+            }
+            double nx = normal[0] / length;
+            double ny = normal[1] / length;
+            double nz = normal[2] / length;
+            int v0 = faceVertices[face * 3];
+            double d = -(nx * positions[v0 * 3] + ny * positions[v0 * 3 + 1] + nz * positions[v0 * 3 + 2]);
+            // Weighted by area, so large faces dominate the error of the vertices they share with slivers.
+            double area = length * 0.5;
+            for (int corner = 0; corner < 3; corner++) {
+                addPlane(faceVertices[face * 3 + corner], nx, ny, nz, d, area);
+            }
+        }
+
+        private void addBoundaryQuadric(int a, int b, int face) {
+            // A plane through the border edge, perpendicular to its only face.
+            faceNormal(face, -1, 0, 0, 0, normal);
+            double ex = positions[b * 3] - positions[a * 3];
+            double ey = positions[b * 3 + 1] - positions[a * 3 + 1];
+            double ez = positions[b * 3 + 2] - positions[a * 3 + 2];
+            double px = ey * normal[2] - ez * normal[1];
+            double py = ez * normal[0] - ex * normal[2];
+            double pz = ex * normal[1] - ey * normal[0];
+            double length = Math.sqrt(px * px + py * py + pz * pz);
+            if (length < 1e-12) {
+                return;
+            }
+            px /= length;
+            py /= length;
+            pz /= length;
+            double d = -(px * positions[a * 3] + py * positions[a * 3 + 1] + pz * positions[a * 3 + 2]);
+            double weight = BOUNDARY_WEIGHT * (ex * ex + ey * ey + ez * ez);
+            addPlane(a, px, py, pz, d, weight);
+            addPlane(b, px, py, pz, d, weight);
+        }
+
+        private void addPlane(int vertex, double a, double b, double c, double d, double weight) {
+            int q = vertex * 10;
+            quadrics[q] += weight * a * a;
+            quadrics[q + 1] += weight * a * b;
+            quadrics[q + 2] += weight * a * c;
+            quadrics[q + 3] += weight * a * d;
+            quadrics[q + 4] += weight * b * b;
+            quadrics[q + 5] += weight * b * c;
+            quadrics[q + 6] += weight * b * d;
+            quadrics[q + 7] += weight * c * c;
+            quadrics[q + 8] += weight * c * d;
+            quadrics[q + 9] += weight * d * d;
+        }
+
+        private void faceNormal(int face, int movedVertex, double x, double y, double z, double[] out) {
+            // Unnormalized normal into out, optionally with one corner moved to (x, y, z).
+            int c0 = faceVertices[face * 3];
+            int c1 = faceVertices[face * 3 + 1];
+            int c2 = faceVertices[face * 3 + 2];
+            double p0x = coordinate(c0, 0, movedVertex, x);
+            double p0y = coordinate(c0, 1, movedVertex, y);
+            double p0z = coordinate(c0, 2, movedVertex, z);
+            double e1x = coordinate(c1, 0, movedVertex, x) - p0x;
+            double e1y = coordinate(c1, 1, movedVertex, y) - p0y;
+            double e1z = coordinate(c1, 2, movedVertex, z) - p0z;
+            double e2x = coordinate(c2, 0, movedVertex, x) - p0x;
+            double e2y = coordinate(c2, 1, movedVertex, y) - p0y;
+            double e2z = coordinate(c2, 2, movedVertex, z) - p0z;
+            out[0] = e1y * e2z - e1z * e2y;
+            out[1] = e1z * e2x - e1x * e2z;
+            out[2] = e1x * e2y - e1y * e2x;
+        }
+
+        private double coordinate(int vertex, int axis, int movedVertex, double moved) {
+            return vertex == movedVertex ? moved : positions[vertex * 3 + axis];
+        }
+
+        private Collapse candidate(int a, int b) {
+            double[] q = new double[10];
+            for (int i = 0; i < 10; i++) {
+                q[i] = quadrics[a * 10 + i] + quadrics[b * 10 + i];
+            }
+            double ax = positions[a * 3];
+            double ay = positions[a * 3 + 1];
+            double az = positions[a * 3 + 2];
+            double bx = positions[b * 3];
+            double by = positions[b * 3 + 1];
+            double bz = positions[b * 3 + 2];
+            double mx = (ax + bx) * 0.5;
+            double my = (ay + by) * 0.5;
+            double mz = (az + bz) * 0.5;
+
+            double bestX = mx;
+            double bestY = my;
+            double bestZ = mz;
+            double bestError = error(q, mx, my, mz);
+            double errorA = error(q, ax, ay, az);
+            if (errorA < bestError) {
+                bestX = ax;
+                bestY = ay;
+                bestZ = az;
+                bestError = errorA;
+            }
+            double errorB = error(q, bx, by, bz);
+            if (errorB < bestError) {
+                bestX = bx;
+                bestY = by;
+                bestZ = bz;
+                bestError = errorB;
+            }
+
+            // The point of least error solves the upper-left 3x3 system; in flat or ridge-like regions it is
+            // ill-conditioned, and a solution far from the edge would pull the vertex across the surface.
+            double det = q[0] * (q[4] * q[7] - q[5] * q[5])
+                    - q[1] * (q[1] * q[7] - q[5] * q[2])
+                    + q[2] * (q[1] * q[5] - q[4] * q[2]);
+            double trace = q[0] + q[4] + q[7];
+            if (Math.abs(det) > 1e-9 * trace * trace * trace) {
+                double rx = -q[3];
+                double ry = -q[6];
+                double rz = -q[8];
+                double x = (rx * (q[4] * q[7] - q[5] * q[5])
+                        - q[1] * (ry * q[7] - q[5] * rz)
+                        + q[2] * (ry * q[5] - q[4] * rz)) / det;
+                double y = (q[0] * (ry * q[7] - q[5] * rz)
+                        - rx * (q[1] * q[7] - q[5] * q[2])
+                        + q[2] * (q[1] * rz - ry * q[2])) / det;
+                double z = (q[0] * (q[4] * rz - ry * q[5])
+                        - q[1] * (q[1] * rz - ry * q[2])
+                        + rx * (q[1] * q[5] - q[4] * q[2])) / det;
+                double edgeLengthSquared = (bx - ax) * (bx - ax) + (by - ay) * (by - ay) + (bz - az) * (bz - az);
+                double offsetSquared = (x - mx) * (x - mx) + (y - my) * (y - my) + (z - mz) * (z - mz);
+                double optimalError = error(q, x, y, z);
+                if (offsetSquared <= edgeLengthSquared && optimalError < bestError) {
+                    bestX = x;
+                    bestY = y;
+                    bestZ = z;
+                    bestError = optimalError;
+                }
+            }
+            return new Collapse(a, b, stamps[a], stamps[b], bestX, bestY, bestZ, bestError);
+        }
+
+        private static double error(double[] q, double x, double y, double z) {
+            double error = q[0] * x * x + 2 * q[1] * x * y + 2 * q[2] * x * z + 2 * q[3] * x
+                    + q[4] * y * y + 2 * q[5] * y * z + 2 * q[6] * y
+                    + q[7] * z * z + 2 * q[8] * z
+                    + q[9];
+            return Math.max(0.0, error);
+        }
+
+        private void collapseUntil(int targetTriangles) {
+            while (liveFaces > targetTriangles) {
+                Collapse collapse = queue.poll();
+                if (collapse == null) {
+                    return;
+                }
+                int a = collapse.a;
+                int b = collapse.b;
+                // Entries are never updated in place; a changed endpoint makes the old entry stale instead.
+                if (removed[a] || removed[b] || stamps[a] != collapse.stampA || stamps[b] != collapse.stampB) {
+                    continue;
+                }
+                if (flips(a, b, collapse) || flips(b, a, collapse)) {
+                    continue;
+                }
+                collapse(collapse);
+            }
+        }
+
+        private boolean flips(int vertex, int other, Collapse collapse) {
+            // A face that would turn over folds the surface onto itself; such a collapse is skipped.
+            int[] faces = vertexFaces[vertex];
+            for (int i = 0; i < vertexFaceCounts[vertex]; i++) {
+                int face = faces[i];
+                if (faceRemoved[face] || hasVertex(face, other)) {
+                    continue;
+                }
+                faceNormal(face, -1, 0, 0, 0, normal);
+                faceNormal(face, vertex, collapse.x, collapse.y, collapse.z, movedNormal);
+                if (normal[0] * movedNormal[0] + normal[1] * movedNormal[1] + normal[2] * movedNormal[2] <= 0.0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasVertex(int face, int vertex) {
+            return faceVertices[face * 3] == vertex
+                    || faceVertices[face * 3 + 1] == vertex
+                    || faceVertices[face * 3 + 2] == vertex;
+        }
+
+        private void collapse(Collapse collapse) {
+            int a = collapse.a;
+            int b = collapse.b;
+            positions[a * 3] = collapse.x;
+            positions[a * 3 + 1] = collapse.y;
+            positions[a * 3 + 2] = collapse.z;
+            for (int i = 0; i < 10; i++) {
+                quadrics[a * 10 + i] += quadrics[b * 10 + i];
+            }
+            removed[b] = true;
+
+            int[] faces = vertexFaces[b];
+            for (int i = 0; i < vertexFaceCounts[b]; i++) {
+                int face = faces[i];
+                if (faceRemoved[face]) {
+                    continue;
+                }
+                if (hasVertex(face, a)) {
+                    faceRemoved[face] = true;
+                    liveFaces--;
+                    continue;
+                }
+                for (int corner = 0; corner < 3; corner++) {
+                    if (faceVertices[face * 3 + corner] == b) {
+                        faceVertices[face * 3 + corner] = a;
+                    }
+                }
+                appendFace(a, face);
+            }
+            vertexFaces[b] = null;
+            vertexFaceCounts[b] = 0;
+
+            int[] aFaces = vertexFaces[a];
+            int count = 0;
+            for (int i = 0; i < vertexFaceCounts[a]; i++) {
+                if (!faceRemoved[aFaces[i]]) {
+                    aFaces[count++] = aFaces[i];
+                }
+            }
+            vertexFaceCounts[a] = count;
+            stamps[a]++;
+
+            // Only edges touching the moved vertex change cost; each neighbour is queued once.
+            markStamp++;
+            marks[a] = markStamp;
+            for (int i = 0; i < count; i++) {
+                for (int corner = 0; corner < 3; corner++) {
+                    int neighbour = faceVertices[aFaces[i] * 3 + corner];
+                    if (marks[neighbour] != markStamp) {
+                        marks[neighbour] = markStamp;
+                        queue.add(candidate(a, neighbour));
+                    }
+                }
+            }
+        }
+
+        private Model toModel(Model source) {
+            Model result = new Model();
+            int[] remap = new int[removed.length];
+            Arrays.fill(remap, -1);
+            for (int face = 0; face < faceCount; face++) {
+                if (faceRemoved[face]) {
+                    continue;
+                }
+                ArrayList<Integer> vertexIndices = new ArrayList<>(3);
+                ArrayList<Integer> textureIndices = new ArrayList<>(3);
+                for (int corner = 0; corner < 3; corner++) {
+                    int vertex = faceVertices[face * 3 + corner];
+                    if (remap[vertex] < 0) {
+                        remap[vertex] = result.vertices.size();
+                        result.vertices.add(new Vector3f(
+                                (float) positions[vertex * 3],
+                                (float) positions[vertex * 3 + 1],
+                                (float) positions[vertex * 3 + 2]));
+                    }
+                    vertexIndices.add(remap[vertex]);
+                    // A corner keeps its original texture coordinate; seams therefore survive simplification.
+                    if (faceTextures[face * 3 + corner] >= 0) {
+                        textureIndices.add(faceTextures[face * 3 + corner]);
+                    }
+                }
+                Polygon polygon = new Polygon();
+                polygon.setVertexIndices(vertexIndices);
+                if (textureIndices.size() == 3) {
+                    polygon.setTextureVertexIndices(textureIndices);
+                }
+                result.polygons.add(polygon);
+            }
+            for (Vector2f textureVertex : source.textureVertices) {
+                result.textureVertices.add(new Vector2f(textureVertex.getX(), textureVertex.getY()));
+            }
+            if (!source.normals.isEmpty()) {
+                // Moved vertices invalidate the source normals; smooth ones match what the loader post-processing builds.
+                NormalsCalculator.recalculateNormals(result);
+            }
+            return result;
+        }
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    private static final class Collapse implements Comparable<Collapse> {
+        private final int a;
+        private final int b;
+        private final int stampA;
+        private final int stampB;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final double cost;
+
+        private Collapse(int a, int b, int stampA, int stampB, double x, double y, double z, double cost) {
+            this.a = a;
+            this.b = b;
+            this.stampA = stampA;
+            this.stampB = stampB;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Collapse other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
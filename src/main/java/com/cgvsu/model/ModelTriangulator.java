@@ -1,5 +1,7 @@
 package com.cgvsu.model;
 
+import com.cgvsu.profiling.TriangulateEvent;
+
 import java.util.ArrayList;
 
 public final class ModelTriangulator {
@@ -8,6 +10,9 @@ public final class ModelTriangulator {
 
     public static void triangulate(Model model) {
         // Ксюня: триангуляция полигонов для подготовки к растеризации (пункт 12).
+        TriangulateEvent event = new TriangulateEvent();
+        event.begin();
+        int polygonCount = model.polygons.size();
         ArrayList<Polygon> triangulated = new ArrayList<>();
         for (Polygon polygon : model.polygons) {
             ArrayList<Integer> vertexIndices = polygon.getVertexIndices();
@@ -38,6 +43,12 @@ public final class ModelTriangulator {
             }
         }
         model.polygons = triangulated;
+        model.markModified();
+        if (event.shouldCommit()) {
+            event.polygons = polygonCount;
+            event.triangles = triangulated.size();
+            event.commit();
+        }
     }
 
     private static ArrayList<Integer> triangleIndices(ArrayList<Integer> indices, int a, int b, int c) {
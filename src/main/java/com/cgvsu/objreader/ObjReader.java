@@ -4,6 +4,7 @@ import com.cgvsu.math.vectors.Vector2f;
 import com.cgvsu.math.vectors.Vector3f;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.Polygon;
+import com.cgvsu.profiling.ObjReadEvent;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -19,6 +20,8 @@ public class ObjReader {
 
     public static Model read(final String fileContent) {
         // Point 1: robust OBJ parsing with validation and line-aware errors.
+        ObjReadEvent event = new ObjReadEvent();
+        event.begin();
         Model result = new Model();
         try (BufferedReader reader = new BufferedReader(new StringReader(fileContent))) {
             String line;
@@ -50,6 +53,14 @@ public class ObjReader {
         } catch (IOException e) {
             throw new ObjReaderException("Failed to read OBJ content.", 0);
         }
+        if (event.shouldCommit()) {
+            event.characters = fileContent.length();
+            event.vertices = result.vertices.size();
+            event.textureVertices = result.textureVertices.size();
+            event.normals = result.normals.size();
+            event.polygons = result.polygons.size();
+            event.commit();
+        }
         return result;
     }
 
@@ -4,6 +4,7 @@ import com.cgvsu.math.vectors.Vector2f;
 import com.cgvsu.math.vectors.Vector3f;
 import com.cgvsu.model.Model;
 import com.cgvsu.model.Polygon;
+import com.cgvsu.profiling.ObjWriteEvent;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -13,7 +14,17 @@ import java.util.Locale;
 
 public class ObjWriter {
     public static void write(Model model, Path path) throws IOException {
-        Files.writeString(path, write(model));
+        ObjWriteEvent event = new ObjWriteEvent();
+        event.begin();
+        String content = write(model);
+        Files.writeString(path, content);
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.characters = content.length();
+            event.vertices = model.vertices.size();
+            event.polygons = model.polygons.size();
+            event.commit();
+        }
     }
 
     public static String write(Model model) {
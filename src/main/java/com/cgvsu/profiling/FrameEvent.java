@@ -0,0 +1,52 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.cgvsu.Frame")
+@Label("Frame")
+@Category({"CG4", "Rendering"})
+@Description("One frame drawn by the software renderer, with the time of each phase")
+public final class FrameEvent extends jdk.jfr.Event {
+    // Spans the drawing only; showing the frame is a separate event on the thread that presents it.
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Models")
+    public int models;
+
+    @Label("Models Culled")
+    public int modelsCulled;
+
+    @Label("Triangles")
+    public long triangles;
+
+    @Label("Triangles Culled")
+    public long trianglesCulled;
+
+    @Label("Pixels Written")
+    public long pixelsWritten;
+
+    @Label("Transform")
+    @Timespan
+    public long transform;
+
+    @Label("Raster")
+    @Timespan
+    public long raster;
+
+    @Label("Lighting")
+    @Timespan
+    public long lighting;
+
+    @Label("Color Buffer")
+    @DataAmount
+    public long colorBufferBytes;
+}
@@ -0,0 +1,18 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.cgvsu.FramePresent")
+@Label("Frame Present")
+@Category({"CG4", "Rendering"})
+@Description("A drawn frame handed to the screen or copied to an offscreen target")
+public final class FramePresentEvent extends jdk.jfr.Event {
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
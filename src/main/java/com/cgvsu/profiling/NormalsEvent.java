@@ -0,0 +1,18 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.cgvsu.RecalculateNormals")
+@Label("Recalculate Normals")
+@Category({"CG4", "Mesh Processing"})
+@Description("Vertex normals of a model rebuilt from its faces")
+public final class NormalsEvent extends jdk.jfr.Event {
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Polygons")
+    public int polygons;
+}
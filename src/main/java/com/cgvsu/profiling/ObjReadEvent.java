@@ -0,0 +1,27 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.cgvsu.ObjRead")
+@Label("OBJ Read")
+@Category({"CG4", "Files"})
+@Description("OBJ text parsed into a model")
+public final class ObjReadEvent extends jdk.jfr.Event {
+    @Label("Characters")
+    public long characters;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Texture Vertices")
+    public int textureVertices;
+
+    @Label("Normals")
+    public int normals;
+
+    @Label("Polygons")
+    public int polygons;
+}
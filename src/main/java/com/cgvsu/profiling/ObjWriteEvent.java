@@ -0,0 +1,24 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.cgvsu.ObjWrite")
+@Label("OBJ Write")
+@Category({"CG4", "Files"})
+@Description("A model written to an OBJ file")
+public final class ObjWriteEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Characters")
+    public long characters;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Polygons")
+    public int polygons;
+}
@@ -0,0 +1,45 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.cgvsu.TextureLoad")
+@Label("Texture Load")
+@Category({"CG4", "Files"})
+@Description("One step of preparing a texture: decoding the file, unpacking its pixels or building mip levels")
+public final class TextureLoadEvent extends jdk.jfr.Event {
+    public static final String DECODE = "decode";
+    public static final String UNPACK = "unpack";
+    public static final String MIPMAP = "mipmap";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Source")
+    public String source;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    public void commit(String stage, String source, int width, int height, long bytes) {
+        // Ends the event started with begin(); the fields are only filled while the event is recorded.
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
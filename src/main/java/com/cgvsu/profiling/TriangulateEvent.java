@@ -0,0 +1,18 @@
+package com.cgvsu.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.cgvsu.Triangulate")
+@Label("Triangulate")
+@Category({"CG4", "Mesh Processing"})
+@Description("Polygons of a model split into triangles")
+public final class TriangulateEvent extends jdk.jfr.Event {
+    @Label("Polygons")
+    public int polygons;
+
+    @Label("Triangles")
+    public int triangles;
+}
@@ -0,0 +1,79 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.profiling.TextureLoadEvent;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+
+public final class ArrayTextureSampler implements TextureSampler {
+    // The texture unpacked once into non-premultiplied ARGB ints; sampling is plain array indexing with the same
+    // clamp-to-edge, nearest-texel addressing as ImageTextureSampler. Whoever loads the texture converts it once and
+    // keeps the sampler next to the image.
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+    private final float maxX;
+    private final float maxY;
+
+    public ArrayTextureSampler(int[] pixels, int width, int height) {
+        if (width < 0 || height < 0 || pixels.length < width * height) {
+            throw new IllegalArgumentException("Pixel array does not match " + width + "x" + height);
+        }
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.maxX = width - 1;
+        this.maxY = height - 1;
+    }
+
+    public static ArrayTextureSampler fromImage(Image image) {
+        // Unpacks every pixel, so call it once per loaded texture, not per frame.
+        return fromPixelReader(image.getPixelReader(), (int) image.getWidth(), (int) image.getHeight(), image.getUrl());
+    }
+
+    static ArrayTextureSampler fromPixelReader(PixelReader reader, int width, int height, String source) {
+        if (reader == null || width == 0 || height == 0) {
+            return new ArrayTextureSampler(new int[0], 0, 0);
+        }
+        TextureLoadEvent event = new TextureLoadEvent();
+        event.begin();
+        int[] pixels = new int[width * height];
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        ArrayTextureSampler sampler = new ArrayTextureSampler(pixels, width, height);
+        event.commit(TextureLoadEvent.UNPACK, source, width, height, (long) pixels.length * Integer.BYTES);
+        return sampler;
+    }
+
+    int[] getPixels() {
+        return pixels;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int sample(float u, float v) {
+        if (width == 0 || height == 0) {
+            return 0xFFFFFFFF;
+        }
+        int x = Math.round(clamp01(u) * maxX);
+        int y = Math.round((1.0f - clamp01(v)) * maxY);
+        return pixels[y * width + x];
+    }
+
+    private static float clamp01(float value) {
+        // NaN falls through and rounds to texel 0, as in ImageTextureSampler.
+        if (value < 0.0f) {
+            return 0.0f;
+        }
+        if (value > 1.0f) {
+            return 1.0f;
+        }
+        return value;
+    }
+}
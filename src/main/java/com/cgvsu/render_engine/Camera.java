@@ -20,24 +20,45 @@ public class Camera {
         this.farPlane = farPlane;
     }
 
+    public Camera copy() {
+        return new Camera(
+                new Vector3f(position.getX(), position.getY(), position.getZ()),
+                new Vector3f(target.getX(), target.getY(), target.getZ()),
+                fov,
+                aspectRatio,
+                nearPlane,
+                farPlane);
+    }
+
     public void setPosition(final Vector3f position) {
         this.position = position;
+        version++;
     }
 
     public void setTarget(final Vector3f target) {
         this.target = target;
+        version++;
     }
 
     public void setAspectRatio(final float aspectRatio) {
-        this.aspectRatio = aspectRatio;
+        if (this.aspectRatio != aspectRatio) {
+            this.aspectRatio = aspectRatio;
+            version++;
+        }
     }
 
     public void setNearPlane(final float nearPlane) {
-        this.nearPlane = nearPlane;
+        if (this.nearPlane != nearPlane) {
+            this.nearPlane = nearPlane;
+            version++;
+        }
     }
 
     public void setFarPlane(final float farPlane) {
-        this.farPlane = farPlane;
+        if (this.farPlane != farPlane) {
+            this.farPlane = farPlane;
+            version++;
+        }
     }
 
     public Vector3f getPosition() {
@@ -64,12 +85,19 @@ public class Camera {
         return farPlane;
     }
 
+    public long getVersion() {
+        // Bumped by every setter that changes the view, so callers can skip re-rendering an unchanged camera.
+        return version;
+    }
+
     public void movePosition(final Vector3f translation) {
         this.position = this.position.add(translation);
+        version++;
     }
 
     public void moveTarget(final Vector3f translation) {
         this.target = this.target.add(translation);
+        version++;
     }
 
     Matrix4 getViewMatrix() {
@@ -86,4 +114,5 @@ public class Camera {
     private float aspectRatio;
     private float nearPlane;
     private float farPlane;
+    private long version;
 }
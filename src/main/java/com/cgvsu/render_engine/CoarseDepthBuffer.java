@@ -0,0 +1,67 @@
+package com.cgvsu.render_engine;
+
+import java.util.Arrays;
+
+final class CoarseDepthBuffer {
+    // Farthest depth of every 8x8 block: a triangle that is not nearer than it cannot pass any depth test there.
+    static final int BLOCK_SHIFT = 3;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private int width;
+    private int height;
+    private int blocksX;
+    private float[] maxDepth = new float[0];
+    // Buffer index of a pixel holding each block's max, or -1 when it is not known yet.
+    private int[] maxIndex = new int[0];
+
+    void resize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.blocksX = (width + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int blocksY = (height + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        maxDepth = new float[blocksX * blocksY];
+        maxIndex = new int[blocksX * blocksY];
+    }
+
+    void clear() {
+        Arrays.fill(maxDepth, Float.POSITIVE_INFINITY);
+        Arrays.fill(maxIndex, -1);
+    }
+
+    boolean isOccluded(int blockX, int blockY, float nearestDepth) {
+        return nearestDepth >= maxDepth[blockY * blocksX + blockX];
+    }
+
+    void update(int blockX, int blockY, float[] depthBuffer) {
+        // Depth writes only lower values, so the max can drop only if the pixel holding it was overwritten; otherwise
+        // the block is not rescanned. Lines lower depths without an update, which the next triangle here picks up.
+        int block = blockY * blocksX + blockX;
+        int known = maxIndex[block];
+        if (known >= 0 && !(depthBuffer[known] < maxDepth[block])) {
+            return;
+        }
+        int startX = blockX << BLOCK_SHIFT;
+        int startY = blockY << BLOCK_SHIFT;
+        int endX = Math.min(width, startX + BLOCK_SIZE);
+        int endY = Math.min(height, startY + BLOCK_SIZE);
+        float max = Float.NEGATIVE_INFINITY;
+        int maxAt = startY * width + startX;
+        for (int y = startY; y < endY; y++) {
+            int row = y * width;
+            for (int x = startX; x < endX; x++) {
+                float depth = depthBuffer[row + x];
+                // A NaN depth passes no rejection, so once found it stays the max and the block is never occluded.
+                if (!(depth <= max) && max == max) {
+                    max = depth;
+                    maxAt = row + x;
+                }
+            }
+        }
+        maxDepth[block] = max;
+        maxIndex[block] = maxAt;
+    }
+
+    int getAllocatedBytes() {
+        return maxDepth.length * (Float.BYTES + Integer.BYTES);
+    }
+}
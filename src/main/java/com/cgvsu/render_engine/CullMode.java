@@ -0,0 +1,19 @@
+package com.cgvsu.render_engine;
+
+public enum CullMode {
+    NONE,
+    BACK,
+    FRONT;
+
+    boolean culls(long screenArea) {
+        // Counter-clockwise model triangles have a positive screen area; zero-area triangles cover no pixels.
+        switch (this) {
+            case BACK:
+                return screenArea <= 0;
+            case FRONT:
+                return screenArea >= 0;
+            default:
+                return false;
+        }
+    }
+}
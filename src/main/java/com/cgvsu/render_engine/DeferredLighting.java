@@ -0,0 +1,128 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+final class DeferredLighting {
+    // Rows per task: enough work to amortize the fork, small enough to balance across cores.
+    private static final int ROWS_PER_TASK = 16;
+
+    private final GBuffer gBuffer;
+    private final float[] depthBuffer;
+    private final int[] colorBuffer;
+    private final int width;
+    private final int height;
+    private final float[] inverseViewProjection = new float[16];
+    private final TextureSampler textureSampler;
+    private final Vector3f lightPos;
+    private final int baseColor;
+
+    DeferredLighting(
+            GBuffer gBuffer,
+            float[] depthBuffer,
+            int[] colorBuffer,
+            Matrix4 viewProjection,
+            TextureSampler textureSampler,
+            Vector3f lightPos,
+            int baseColor) {
+        this.gBuffer = gBuffer;
+        this.depthBuffer = depthBuffer;
+        this.colorBuffer = colorBuffer;
+        this.width = gBuffer.getWidth();
+        this.height = gBuffer.getHeight();
+        this.textureSampler = textureSampler;
+        this.lightPos = lightPos;
+        this.baseColor = baseColor;
+        if (lightPos != null) {
+            // Positions are not stored: each pixel's world position is rebuilt from its depth.
+            Matrix4 inverse = viewProjection.inv();
+            for (int row = 0; row < 4; row++) {
+                for (int col = 0; col < 4; col++) {
+                    inverseViewProjection[row * 4 + col] = inverse.get(row, col);
+                }
+            }
+        }
+    }
+
+    void shade() {
+        if (height == 0) {
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new RowTask(0, height));
+    }
+
+    private void shadeRows(int startY, int endY) {
+        int[] normals = gBuffer.getNormals();
+        float[] texU = gBuffer.getTexU();
+        float[] texV = gBuffer.getTexV();
+        byte[] materials = gBuffer.getMaterials();
+        short[] mipLevels = gBuffer.getMipLevels();
+        float[] m = inverseViewProjection;
+        float[] normal = new float[3];
+
+        for (int y = startY; y < endY; y++) {
+            float ndcY = 1.0f - (y + 0.5f) * 2.0f / height;
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int index = row + x;
+                byte material = materials[index];
+                if (material == GBuffer.MATERIAL_EMPTY) {
+                    continue;
+                }
+
+                int sampledColor = baseColor;
+                if (textureSampler != null && (material & GBuffer.MATERIAL_HAS_UV) != 0) {
+                    sampledColor = textureSampler.sample(texU[index], texV[index], mipLevels[index]);
+                }
+
+                float intensity = 1.0f;
+                if (lightPos != null && (material & GBuffer.MATERIAL_HAS_NORMAL) != 0) {
+                    // Rasterizer samples at pixel centers, so reconstruct there as well.
+                    float ndcX = (x + 0.5f) * 2.0f / width - 1.0f;
+                    float ndcZ = depthBuffer[index];
+                    float w = m[12] * ndcX + m[13] * ndcY + m[14] * ndcZ + m[15];
+                    float px = (m[0] * ndcX + m[1] * ndcY + m[2] * ndcZ + m[3]) / w;
+                    float py = (m[4] * ndcX + m[5] * ndcY + m[6] * ndcZ + m[7]) / w;
+                    float pz = (m[8] * ndcX + m[9] * ndcY + m[10] * ndcZ + m[11]) / w;
+
+                    float lx = lightPos.getX() - px;
+                    float ly = lightPos.getY() - py;
+                    float lz = lightPos.getZ() - pz;
+                    float lightLength = (float) Math.sqrt(lx * lx + ly * ly + lz * lz);
+                    GBuffer.unpackNormal(normals[index], normal);
+                    float diffuse = lightLength > 0.0f
+                            ? Math.max(0.0f, (normal[0] * lx + normal[1] * ly + normal[2] * lz) / lightLength)
+                            : 0.0f;
+                    intensity = Rasterizer.lightIntensity(diffuse);
+                }
+
+                colorBuffer[index] = Rasterizer.applyLighting(sampledColor, intensity);
+            }
+        }
+    }
+
+    private final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int startY;
+        private final int endY;
+
+        private RowTask(int startY, int endY) {
+            this.startY = startY;
+            this.endY = endY;
+        }
+
+        @Override
+        protected void compute() {
+            if (endY - startY <= ROWS_PER_TASK) {
+                shadeRows(startY, endY);
+                return;
+            }
+            int middle = (startY + endY) >>> 1;
+            invokeAll(new RowTask(startY, middle), new RowTask(middle, endY));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.cgvsu.render_engine;
+
+enum DepthPass {
+    // Depth test, shade and write depth in one go.
+    SINGLE,
+    // Only lay down the nearest depth; colors are left untouched.
+    DEPTH_ONLY,
+    // Shade only where the fragment is the one DEPTH_ONLY kept; depth is not written.
+    SHADE_EQUAL,
+    // Depth test and write depth, but store surface attributes in the G-buffer instead of a color.
+    GEOMETRY
+}
@@ -0,0 +1,68 @@
+package com.cgvsu.render_engine;
+
+final class DirtyRegion {
+    // Inclusive pixel bounds; an empty region has minX > maxX.
+    private int minX;
+    private int minY;
+    private int maxX = -1;
+    private int maxY = -1;
+
+    void include(int minX, int minY, int maxX, int maxY, int width, int height) {
+        int clampedMinX = Math.max(0, minX);
+        int clampedMinY = Math.max(0, minY);
+        int clampedMaxX = Math.min(width - 1, maxX);
+        int clampedMaxY = Math.min(height - 1, maxY);
+        if (clampedMinX > clampedMaxX || clampedMinY > clampedMaxY) {
+            return;
+        }
+        if (isEmpty()) {
+            this.minX = clampedMinX;
+            this.minY = clampedMinY;
+            this.maxX = clampedMaxX;
+            this.maxY = clampedMaxY;
+            return;
+        }
+        this.minX = Math.min(this.minX, clampedMinX);
+        this.minY = Math.min(this.minY, clampedMinY);
+        this.maxX = Math.max(this.maxX, clampedMaxX);
+        this.maxY = Math.max(this.maxY, clampedMaxY);
+    }
+
+    void include(DirtyRegion other, int width, int height) {
+        if (!other.isEmpty()) {
+            include(other.minX, other.minY, other.maxX, other.maxY, width, height);
+        }
+    }
+
+    void setEmpty() {
+        minX = 0;
+        minY = 0;
+        maxX = -1;
+        maxY = -1;
+    }
+
+    void setFull(int width, int height) {
+        setEmpty();
+        include(0, 0, width - 1, height - 1, width, height);
+    }
+
+    boolean isEmpty() {
+        return minX > maxX || minY > maxY;
+    }
+
+    int getMinX() {
+        return minX;
+    }
+
+    int getMinY() {
+        return minY;
+    }
+
+    int getWidth() {
+        return isEmpty() ? 0 : maxX - minX + 1;
+    }
+
+    int getHeight() {
+        return isEmpty() ? 0 : maxY - minY + 1;
+    }
+}
@@ -0,0 +1,567 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+
+// Writes fragments that passed the depth test. A kernel is picked per triangle, so the per-pixel code has no
+// attribute or render-state checks. Each kind walks its pixels in its own copy of the block loop: the write call in
+// that loop always reaches the same class, so it is inlined even when one frame mixes kinds of kernel, and the only
+// call that dispatches on the kind is made once per 8x8 block (once per block row on the SIMD path).
+abstract class FragmentKernel {
+    private static final int LANES = CoarseDepthBuffer.BLOCK_SIZE;
+
+    int[] colorBuffer;
+    float[] depthBuffer;
+    boolean storeDepth;
+
+    private FragmentKernel() {
+    }
+
+    final void bindTarget(int[] colorBuffer, float[] depthBuffer, DepthPass pass) {
+        this.colorBuffer = colorBuffer;
+        this.depthBuffer = depthBuffer;
+        // The shading pass after a depth pre-pass only writes pixels whose depth is already stored.
+        this.storeDepth = pass != DepthPass.SHADE_EQUAL;
+    }
+
+    abstract void write(int index, float w0, float w1, float w2, float depth);
+
+    // Shades the covered pixels of one block that pass the depth test and returns how many there were. rowIndex is
+    // the buffer index of the block's top-left pixel and the e*Row values are the edge functions there.
+    abstract int shadeBlock(EdgeWalk walk, int rowIndex, int columns, int rows, long e0Row, long e1Row, long e2Row);
+
+    // Writes the lanes set in passed, from the SIMD kernel's w0, w1, w2 and depth output groups.
+    abstract void writeLanes(int index, long passed, float[] lanes);
+
+    static FragmentKernel select(
+            Rasterizer.Vertex v0,
+            Rasterizer.Vertex v1,
+            Rasterizer.Vertex v2,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            GBuffer gBuffer,
+            DepthPass pass,
+            int baseColor,
+            TextureSampler textureSampler,
+            Vector3f lightPos,
+            Cache cache) {
+        // Rebinds one of the cache's kernels, so the kernel stays valid only until the next select on that cache.
+        if (pass == DepthPass.DEPTH_ONLY) {
+            return null;
+        }
+        boolean hasUv = v0.texCoord != null && v1.texCoord != null && v2.texCoord != null;
+        boolean hasNormal = v0.normal != null && v1.normal != null && v2.normal != null;
+        boolean textured = textureSampler != null && hasUv;
+        // A mipmapped texture is sampled at the level matching this triangle's screen-space UV derivatives.
+        int mipLevel = textured ? Rasterizer.triangleMipLevel(textureSampler, v0, v1, v2) : 0;
+        if (pass == DepthPass.GEOMETRY) {
+            Geometry kernel = cache.geometry();
+            kernel.bind(v0, v1, v2, depthBuffer, gBuffer, hasUv, hasNormal, mipLevel);
+            return kernel;
+        }
+        boolean lit = lightPos != null && hasNormal;
+        FragmentKernel kernel;
+        if (textured && lit) {
+            TexturedLit texturedLit = cache.texturedLit();
+            texturedLit.bind(v0, v1, v2, textureSampler, mipLevel, lightPos);
+            kernel = texturedLit;
+        } else if (textured) {
+            Textured texturedOnly = cache.textured();
+            texturedOnly.bind(v0, v1, v2, textureSampler, mipLevel);
+            kernel = texturedOnly;
+        } else if (lit) {
+            Lit litOnly = cache.lit();
+            litOnly.bind(v0, v1, v2, baseColor, lightPos);
+            kernel = litOnly;
+        } else {
+            Flat flat = cache.flat();
+            flat.bind(baseColor);
+            kernel = flat;
+        }
+        kernel.bindTarget(colorBuffer, depthBuffer, pass);
+        return kernel;
+    }
+
+    static final class EdgeWalk {
+        // Per-triangle constants of the incremental edge walk, set by the rasterizer before any block is shaded.
+        long stepX0, stepX1, stepX2;
+        long stepY0, stepY1, stepY2;
+        long bias0, bias1, bias2;
+        float invArea;
+        float z0, z1, z2;
+        boolean shadeEqual;
+        int stride;
+
+        boolean covers(long e0, long e1, long e2) {
+            // Top-left rule: pixels exactly on a right or bottom edge belong to the neighbouring triangle.
+            return ((e0 + bias0) | (e1 + bias1) | (e2 + bias2)) >= 0;
+        }
+
+        float depth(float w0, float w1, float w2) {
+            return w0 * z0 + w1 * z1 + w2 * z2;
+        }
+
+        boolean passes(float depth, float stored) {
+            // The shading pass recomputes depth with identical arithmetic, so equality is exact. Written as a
+            // negated rejection, so NaN depths behave as in the depth-only loop.
+            return shadeEqual ? depth == stored : !(depth >= stored);
+        }
+    }
+
+    static final class Cache {
+        // Per-thread scratch of the fragment path: one kernel of each kind, the edge walk and the SIMD lane output,
+        // reused for every triangle, so rasterizing allocates nothing per triangle. Kernels are made on first use.
+        final float[] lanes = new float[LANES * 4];
+        final EdgeWalk walk = new EdgeWalk();
+        private Flat flat;
+        private Textured textured;
+        private Lit lit;
+        private TexturedLit texturedLit;
+        private Geometry geometry;
+
+        private Flat flat() {
+            if (flat == null) {
+                flat = new Flat();
+            }
+            return flat;
+        }
+
+        private Textured textured() {
+            if (textured == null) {
+                textured = new Textured();
+            }
+            return textured;
+        }
+
+        private Lit lit() {
+            if (lit == null) {
+                lit = new Lit();
+            }
+            return lit;
+        }
+
+        private TexturedLit texturedLit() {
+            if (texturedLit == null) {
+                texturedLit = new TexturedLit();
+            }
+            return texturedLit;
+        }
+
+        private Geometry geometry() {
+            if (geometry == null) {
+                geometry = new Geometry();
+            }
+            return geometry;
+        }
+    }
+
+    static final class Flat extends FragmentKernel {
+        private int color;
+
+        private void bind(int baseColor) {
+            this.color = Rasterizer.applyLighting(baseColor, 1.0f);
+        }
+
+        @Override
+        void write(int index, float w0, float w1, float w2, float depth) {
+            colorBuffer[index] = color;
+            if (storeDepth) {
+                depthBuffer[index] = depth;
+            }
+        }
+
+        @Override
+        int shadeBlock(EdgeWalk walk, int rowIndex, int columns, int rows, long e0Row, long e1Row, long e2Row) {
+            int passed = 0;
+            for (int row = 0; row < rows; row++, rowIndex += walk.stride) {
+                long e0 = e0Row + row * walk.stepY0;
+                long e1 = e1Row + row * walk.stepY1;
+                long e2 = e2Row + row * walk.stepY2;
+                for (int index = rowIndex, end = rowIndex + columns; index < end;
+                        index++, e0 += walk.stepX0, e1 += walk.stepX1, e2 += walk.stepX2) {
+                    if (!walk.covers(e0, e1, e2)) {
+                        continue;
+                    }
+                    float w0 = e0 * walk.invArea;
+                    float w1 = e1 * walk.invArea;
+                    float w2 = e2 * walk.invArea;
+                    float depth = walk.depth(w0, w1, w2);
+                    if (!walk.passes(depth, depthBuffer[index])) {
+                        continue;
+                    }
+                    write(index, w0, w1, w2, depth);
+                    passed++;
+                }
+            }
+            return passed;
+        }
+
+        @Override
+        void writeLanes(int index, long passed, float[] lanes) {
+            for (; passed != 0; passed &= passed - 1) {
+                int lane = Long.numberOfTrailingZeros(passed);
+                write(index + lane, lanes[lane], lanes[LANES + lane], lanes[LANES * 2 + lane], lanes[LANES * 3 + lane]);
+            }
+        }
+    }
+
+    static final class Textured extends FragmentKernel {
+        private TextureSampler textureSampler;
+        private int mipLevel;
+        private float u0, v0, u1, v1, u2, v2;
+
+        private void bind(
+                Rasterizer.Vertex a,
+                Rasterizer.Vertex b,
+                Rasterizer.Vertex c,
+                TextureSampler textureSampler,
+                int mipLevel) {
+            this.textureSampler = textureSampler;
+            this.mipLevel = mipLevel;
+            this.u0 = a.texCoord.getX();
+            this.v0 = a.texCoord.getY();
+            this.u1 = b.texCoord.getX();
+            this.v1 = b.texCoord.getY();
+            this.u2 = c.texCoord.getX();
+            this.v2 = c.texCoord.getY();
+        }
+
+        @Override
+        void write(int index, float w0, float w1, float w2, float depth) {
+            int sampledColor = textureSampler.sample(
+                    w0 * u0 + w1 * u1 + w2 * u2, w0 * v0 + w1 * v1 + w2 * v2, mipLevel);
+            colorBuffer[index] = Rasterizer.applyLighting(sampledColor, 1.0f);
+            if (storeDepth) {
+                depthBuffer[index] = depth;
+            }
+        }
+
+        @Override
+        int shadeBlock(EdgeWalk walk, int rowIndex, int columns, int rows, long e0Row, long e1Row, long e2Row) {
+            int passed = 0;
+            for (int row = 0; row < rows; row++, rowIndex += walk.stride) {
+                long e0 = e0Row + row * walk.stepY0;
+                long e1 = e1Row + row * walk.stepY1;
+                long e2 = e2Row + row * walk.stepY2;
+                for (int index = rowIndex, end = rowIndex + columns; index < end;
+                        index++, e0 += walk.stepX0, e1 += walk.stepX1, e2 += walk.stepX2) {
+                    if (!walk.covers(e0, e1, e2)) {
+                        continue;
+                    }
+                    float w0 = e0 * walk.invArea;
+                    float w1 = e1 * walk.invArea;
+                    float w2 = e2 * walk.invArea;
+                    float depth = walk.depth(w0, w1, w2);
+                    if (!walk.passes(depth, depthBuffer[index])) {
+                        continue;
+                    }
+                    write(index, w0, w1, w2, depth);
+                    passed++;
+                }
+            }
+            return passed;
+        }
+
+        @Override
+        void writeLanes(int index, long passed, float[] lanes) {
+            for (; passed != 0; passed &= passed - 1) {
+                int lane = Long.numberOfTrailingZeros(passed);
+                write(index + lane, lanes[lane], lanes[LANES + lane], lanes[LANES * 2 + lane], lanes[LANES * 3 + lane]);
+            }
+        }
+    }
+
+    static final class Lit extends FragmentKernel {
+        private int baseColor;
+        private final Lighting lighting = new Lighting();
+
+        private void bind(
+                Rasterizer.Vertex a, Rasterizer.Vertex b, Rasterizer.Vertex c, int baseColor, Vector3f lightPos) {
+            this.baseColor = baseColor;
+            lighting.bind(a, b, c, lightPos);
+        }
+
+        @Override
+        void write(int index, float w0, float w1, float w2, float depth) {
+            colorBuffer[index] = Rasterizer.applyLighting(baseColor, lighting.intensity(w0, w1, w2));
+            if (storeDepth) {
+                depthBuffer[index] = depth;
+            }
+        }
+
+        @Override
+        int shadeBlock(EdgeWalk walk, int rowIndex, int columns, int rows, long e0Row, long e1Row, long e2Row) {
+            int passed = 0;
+            for (int row = 0; row < rows; row++, rowIndex += walk.stride) {
+                long e0 = e0Row + row * walk.stepY0;
+                long e1 = e1Row + row * walk.stepY1;
+                long e2 = e2Row + row * walk.stepY2;
+                for (int index = rowIndex, end = rowIndex + columns; index < end;
+                        index++, e0 += walk.stepX0, e1 += walk.stepX1, e2 += walk.stepX2) {
+                    if (!walk.covers(e0, e1, e2)) {
+                        continue;
+                    }
+                    float w0 = e0 * walk.invArea;
+                    float w1 = e1 * walk.invArea;
+                    float w2 = e2 * walk.invArea;
+                    float depth = walk.depth(w0, w1, w2);
+                    if (!walk.passes(depth, depthBuffer[index])) {
+                        continue;
+                    }
+                    write(index, w0, w1, w2, depth);
+                    passed++;
+                }
+            }
+            return passed;
+        }
+
+        @Override
+        void writeLanes(int index, long passed, float[] lanes) {
+            for (; passed != 0; passed &= passed - 1) {
+                int lane = Long.numberOfTrailingZeros(passed);
+                write(index + lane, lanes[lane], lanes[LANES + lane], lanes[LANES * 2 + lane], lanes[LANES * 3 + lane]);
+            }
+        }
+    }
+
+    static final class TexturedLit extends FragmentKernel {
+        private TextureSampler textureSampler;
+        private int mipLevel;
+        private float u0, v0, u1, v1, u2, v2;
+        private final Lighting lighting = new Lighting();
+
+        private void bind(
+                Rasterizer.Vertex a,
+                Rasterizer.Vertex b,
+                Rasterizer.Vertex c,
+                TextureSampler textureSampler,
+                int mipLevel,
+                Vector3f lightPos) {
+            this.textureSampler = textureSampler;
+            this.mipLevel = mipLevel;
+            this.u0 = a.texCoord.getX();
+            this.v0 = a.texCoord.getY();
+            this.u1 = b.texCoord.getX();
+            this.v1 = b.texCoord.getY();
+            this.u2 = c.texCoord.getX();
+            this.v2 = c.texCoord.getY();
+            lighting.bind(a, b, c, lightPos);
+        }
+
+        @Override
+        void write(int index, float w0, float w1, float w2, float depth) {
+            int sampledColor = textureSampler.sample(
+                    w0 * u0 + w1 * u1 + w2 * u2, w0 * v0 + w1 * v1 + w2 * v2, mipLevel);
+            colorBuffer[index] = Rasterizer.applyLighting(sampledColor, lighting.intensity(w0, w1, w2));
+            if (storeDepth) {
+                depthBuffer[index] = depth;
+            }
+        }
+
+        @Override
+        int shadeBlock(EdgeWalk walk, int rowIndex, int columns, int rows, long e0Row, long e1Row, long e2Row) {
+            int passed = 0;
+            for (int row = 0; row < rows; row++, rowIndex += walk.stride) {
+                long e0 = e0Row + row * walk.stepY0;
+                long e1 = e1Row + row * walk.stepY1;
+                long e2 = e2Row + row * walk.stepY2;
+                for (int index = rowIndex, end = rowIndex + columns; index < end;
+                        index++, e0 += walk.stepX0, e1 += walk.stepX1, e2 += walk.stepX2) {
+                    if (!walk.covers(e0, e1, e2)) {
+                        continue;
+                    }
+                    float w0 = e0 * walk.invArea;
+                    float w1 = e1 * walk.invArea;
+                    float w2 = e2 * walk.invArea;
+                    float depth = walk.depth(w0, w1, w2);
+                    if (!walk.passes(depth, depthBuffer[index])) {
+                        continue;
+                    }
+                    write(index, w0, w1, w2, depth);
+                    passed++;
+                }
+            }
+            return passed;
+        }
+
+        @Override
+        void writeLanes(int index, long passed, float[] lanes) {
+            for (; passed != 0; passed &= passed - 1) {
+                int lane = Long.numberOfTrailingZeros(passed);
+                write(index + lane, lanes[lane], lanes[LANES + lane], lanes[LANES * 2 + lane], lanes[LANES * 3 + lane]);
+            }
+        }
+    }
+
+    static final class Geometry extends FragmentKernel {
+        // Deferred path: store surface attributes and leave shading to DeferredLighting.
+        private int[] normals;
+        private float[] texU;
+        private float[] texV;
+        private byte[] materials;
+        private short[] mipLevels;
+        private byte material;
+        private short mipLevel;
+        private boolean hasUv;
+        private boolean hasNormal;
+        private float u0, v0, u1, v1, u2, v2;
+        private float n0x, n0y, n0z, n1x, n1y, n1z, n2x, n2y, n2z;
+
+        private void bind(
+                Rasterizer.Vertex a,
+                Rasterizer.Vertex b,
+                Rasterizer.Vertex c,
+                float[] depthBuffer,
+                GBuffer gBuffer,
+                boolean hasUv,
+                boolean hasNormal,
+                int mipLevel) {
+            bindTarget(null, depthBuffer, DepthPass.GEOMETRY);
+            this.normals = gBuffer.getNormals();
+            this.texU = gBuffer.getTexU();
+            this.texV = gBuffer.getTexV();
+            this.materials = gBuffer.getMaterials();
+            this.mipLevels = gBuffer.getMipLevels();
+            this.mipLevel = (short) mipLevel;
+            byte flags = GBuffer.MATERIAL_SURFACE;
+            if (hasUv) {
+                flags |= GBuffer.MATERIAL_HAS_UV;
+            }
+            if (hasNormal) {
+                flags |= GBuffer.MATERIAL_HAS_NORMAL;
+            }
+            this.material = flags;
+            this.hasUv = hasUv;
+            this.hasNormal = hasNormal;
+            this.u0 = hasUv ? a.texCoord.getX() : 0.0f;
+            this.v0 = hasUv ? a.texCoord.getY() : 0.0f;
+            this.u1 = hasUv ? b.texCoord.getX() : 0.0f;
+            this.v1 = hasUv ? b.texCoord.getY() : 0.0f;
+            this.u2 = hasUv ? c.texCoord.getX() : 0.0f;
+            this.v2 = hasUv ? c.texCoord.getY() : 0.0f;
+            this.n0x = hasNormal ? a.normal.getX() : 0.0f;
+            this.n0y = hasNormal ? a.normal.getY() : 0.0f;
+            this.n0z = hasNormal ? a.normal.getZ() : 0.0f;
+            this.n1x = hasNormal ? b.normal.getX() : 0.0f;
+            this.n1y = hasNormal ? b.normal.getY() : 0.0f;
+            this.n1z = hasNormal ? b.normal.getZ() : 0.0f;
+            this.n2x = hasNormal ? c.normal.getX() : 0.0f;
+            this.n2y = hasNormal ? c.normal.getY() : 0.0f;
+            this.n2z = hasNormal ? c.normal.getZ() : 0.0f;
+        }
+
+        @Override
+        void write(int index, float w0, float w1, float w2, float depth) {
+            depthBuffer[index] = depth;
+            materials[index] = material;
+            if (hasUv) {
+                texU[index] = w0 * u0 + w1 * u1 + w2 * u2;
+                texV[index] = w0 * v0 + w1 * v1 + w2 * v2;
+                mipLevels[index] = mipLevel;
+            }
+            if (hasNormal) {
+                normals[index] = GBuffer.packNormal(
+                        w0 * n0x + w1 * n1x + w2 * n2x,
+                        w0 * n0y + w1 * n1y + w2 * n2y,
+                        w0 * n0z + w1 * n1z + w2 * n2z);
+            }
+        }
+
+        @Override
+        int shadeBlock(EdgeWalk walk, int rowIndex, int columns, int rows, long e0Row, long e1Row, long e2Row) {
+            int passed = 0;
+            for (int row = 0; row < rows; row++, rowIndex += walk.stride) {
+                long e0 = e0Row + row * walk.stepY0;
+                long e1 = e1Row + row * walk.stepY1;
+                long e2 = e2Row + row * walk.stepY2;
+                for (int index = rowIndex, end = rowIndex + columns; index < end;
+                        index++, e0 += walk.stepX0, e1 += walk.stepX1, e2 += walk.stepX2) {
+                    if (!walk.covers(e0, e1, e2)) {
+                        continue;
+                    }
+                    float w0 = e0 * walk.invArea;
+                    float w1 = e1 * walk.invArea;
+                    float w2 = e2 * walk.invArea;
+                    float depth = walk.depth(w0, w1, w2);
+                    if (!walk.passes(depth, depthBuffer[index])) {
+                        continue;
+                    }
+                    write(index, w0, w1, w2, depth);
+                    passed++;
+                }
+            }
+            return passed;
+        }
+
+        @Override
+        void writeLanes(int index, long passed, float[] lanes) {
+            for (; passed != 0; passed &= passed - 1) {
+                int lane = Long.numberOfTrailingZeros(passed);
+                write(index + lane, lanes[lane], lanes[LANES + lane], lanes[LANES * 2 + lane], lanes[LANES * 3 + lane]);
+            }
+        }
+    }
+
+    private static final class Lighting {
+        // Lighting inputs unpacked once per triangle, so the per-pixel path works on locals and allocates nothing.
+        private float n0x, n0y, n0z, n1x, n1y, n1z, n2x, n2y, n2z;
+        private float p0x, p0y, p0z, p1x, p1y, p1z, p2x, p2y, p2z;
+        private float lightX, lightY, lightZ;
+
+        private void bind(Rasterizer.Vertex a, Rasterizer.Vertex b, Rasterizer.Vertex c, Vector3f lightPos) {
+            this.n0x = a.normal.getX();
+            this.n0y = a.normal.getY();
+            this.n0z = a.normal.getZ();
+            this.n1x = b.normal.getX();
+            this.n1y = b.normal.getY();
+            this.n1z = b.normal.getZ();
+            this.n2x = c.normal.getX();
+            this.n2y = c.normal.getY();
+            this.n2z = c.normal.getZ();
+            this.p0x = a.position.getX();
+            this.p0y = a.position.getY();
+            this.p0z = a.position.getZ();
+            this.p1x = b.position.getX();
+            this.p1y = b.position.getY();
+            this.p1z = b.position.getZ();
+            this.p2x = c.position.getX();
+            this.p2y = c.position.getY();
+            this.p2z = c.position.getZ();
+            this.lightX = lightPos.getX();
+            this.lightY = lightPos.getY();
+            this.lightZ = lightPos.getZ();
+        }
+
+        float intensity(float w0, float w1, float w2) {
+            // Same operation order and zero-length handling as the Vector3f mult/add/normalize chain.
+            float nx = n0x * w0 + n1x * w1 + n2x * w2;
+            float ny = n0y * w0 + n1y * w1 + n2y * w2;
+            float nz = n0z * w0 + n1z * w1 + n2z * w2;
+            float normalLength = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (Math.abs(normalLength) < 1e-7) {
+                nx = 0.0f;
+                ny = 0.0f;
+                nz = 0.0f;
+            } else {
+                nx /= normalLength;
+                ny /= normalLength;
+                nz /= normalLength;
+            }
+
+            float lx = lightX - (p0x * w0 + p1x * w1 + p2x * w2);
+            float ly = lightY - (p0y * w0 + p1y * w1 + p2y * w2);
+            float lz = lightZ - (p0z * w0 + p1z * w1 + p2z * w2);
+            float lightLength = (float) Math.sqrt(lx * lx + ly * ly + lz * lz);
+            if (Math.abs(lightLength) < 1e-7) {
+                lx = 0.0f;
+                ly = 0.0f;
+                lz = 0.0f;
+            } else {
+                lx /= lightLength;
+                ly /= lightLength;
+                lz /= lightLength;
+            }
+
+            return Rasterizer.lightIntensity(Math.max(0.0f, nx * lx + ny * ly + nz * lz));
+        }
+    }
+}
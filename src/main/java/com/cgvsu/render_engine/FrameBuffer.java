@@ -0,0 +1,237 @@
+package com.cgvsu.render_engine;
+
+import javafx.scene.image.Image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FrameBuffer {
+    // Render target reused between frames: attachments are reallocated only when the size changes.
+    private int width;
+    private int height;
+    private int[] colorBuffer = new int[0];
+    // False while the color attachment is an array lent by the caller; see attachColorBuffer.
+    private boolean ownsColorBuffer = true;
+    private float[] depthBuffer = new float[0];
+    private final CoarseDepthBuffer coarseDepth = new CoarseDepthBuffer();
+    // One per mesh of the frame, so the shading pass after a depth pre-pass reuses the pre-pass transforms.
+    private final List<VertexCache> vertexCaches = new ArrayList<>();
+    private final VertexPool vertexPool = new VertexPool();
+    // Fragment kernels of the serial path; the parallel path keeps one set per tile.
+    private final FragmentKernel.Cache fragmentKernels = new FragmentKernel.Cache();
+    // Allocated on first use: only the deferred path needs it.
+    private GBuffer gBuffer;
+    // Pixels written since the last clear, and pixels changed since the frame was last presented.
+    private final DirtyRegion drawn = new DirtyRegion();
+    private final DirtyRegion unpresented = new DirtyRegion();
+    private final DirtyRegion presented = new DirtyRegion();
+
+    // Texture of the Image-based RenderEngine entry points, converted once per image; see getImageTexture.
+    private Image textureImage;
+    private ArrayTextureSampler imageTexture;
+    private MipmapTexture imageMipmaps;
+
+    // Statistics of the frame last drawn into this buffer.
+    private RenderStats stats;
+
+    private long allocationCount;
+    private long allocatedBytes;
+
+    public FrameBuffer() {
+    }
+
+    public FrameBuffer(int width, int height) {
+        resize(width, height);
+    }
+
+    public boolean resize(int width, int height) {
+        checkSize(width, height);
+        if (width == this.width && height == this.height) {
+            return false;
+        }
+        reallocate(width, height, null);
+        return true;
+    }
+
+    void attachColorBuffer(int[] target, int width, int height) {
+        // Frames are drawn straight into target, which holds at least width * height pixels, instead of into an
+        // own array; the other attachments stay owned. A null target, or a resize to another size, goes back to an
+        // own array. The buffer keeps the reference until then.
+        checkSize(width, height);
+        if (target != null && target.length < width * height) {
+            throw new IllegalArgumentException(
+                    "Target holds " + target.length + " pixels, " + width * height + " needed");
+        }
+        if (width != this.width || height != this.height) {
+            reallocate(width, height, target);
+            return;
+        }
+        if (target != null) {
+            colorBuffer = target;
+            ownsColorBuffer = false;
+        } else if (!ownsColorBuffer) {
+            colorBuffer = new int[width * height];
+            ownsColorBuffer = true;
+            recordAllocation((long) width * height * Integer.BYTES);
+        }
+        // Nothing of what the new array holds has been drawn or presented by this buffer.
+        drawn.setEmpty();
+        unpresented.setFull(width, height);
+    }
+
+    private void reallocate(int width, int height, int[] colorTarget) {
+        // Empty until every attachment is allocated: if an allocation fails (out of memory on a huge viewport),
+        // the next resize reallocates everything instead of keeping attachments of different sizes.
+        this.width = 0;
+        this.height = 0;
+        colorBuffer = new int[0];
+        depthBuffer = new float[0];
+        int pixelCount = width * height;
+        int[] newColorBuffer = colorTarget != null ? colorTarget : new int[pixelCount];
+        float[] newDepthBuffer = new float[pixelCount];
+        coarseDepth.resize(width, height);
+        long bytes = (long) pixelCount * (colorTarget != null ? Float.BYTES : Integer.BYTES + Float.BYTES)
+                + coarseDepth.getAllocatedBytes();
+        if (gBuffer != null) {
+            bytes += gBuffer.resize(width, height);
+        }
+        this.width = width;
+        this.height = height;
+        colorBuffer = newColorBuffer;
+        ownsColorBuffer = colorTarget == null;
+        depthBuffer = newDepthBuffer;
+        recordAllocation(bytes);
+        drawn.setEmpty();
+        unpresented.setFull(width, height);
+    }
+
+    private static void checkSize(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Frame buffer size must not be negative: " + width + "x" + height);
+        }
+    }
+
+    public void clear(int clearColor) {
+        // Clearing only changes what the previous frame drew; the rest already holds the clear color.
+        unpresented.include(drawn, width, height);
+        drawn.setEmpty();
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, clearColor);
+        coarseDepth.clear();
+        if (gBuffer != null) {
+            gBuffer.clear();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getColorBuffer() {
+        return colorBuffer;
+    }
+
+    public float[] getDepthBuffer() {
+        return depthBuffer;
+    }
+
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    void setStats(RenderStats stats) {
+        this.stats = stats;
+    }
+
+    void recordPresent(long nanos) {
+        if (stats != null) {
+            stats.setPresentNanos(nanos);
+        }
+    }
+
+    public long getAllocationCount() {
+        long count = allocationCount + vertexPool.getAllocationCount();
+        for (VertexCache vertexCache : vertexCaches) {
+            count += vertexCache.getAllocationCount();
+        }
+        return count;
+    }
+
+    public long getAllocatedBytes() {
+        long bytes = allocatedBytes + vertexPool.getAllocatedBytes();
+        for (VertexCache vertexCache : vertexCaches) {
+            bytes += vertexCache.getAllocatedBytes();
+        }
+        return bytes;
+    }
+
+    CoarseDepthBuffer getCoarseDepth() {
+        return coarseDepth;
+    }
+
+    VertexCache getVertexCache(int mesh) {
+        // Index of the mesh in the frame's list; caches are made on first use and kept.
+        while (vertexCaches.size() <= mesh) {
+            vertexCaches.add(new VertexCache());
+        }
+        return vertexCaches.get(mesh);
+    }
+
+    VertexPool getVertexPool() {
+        return vertexPool;
+    }
+
+    FragmentKernel.Cache getFragmentKernels() {
+        return fragmentKernels;
+    }
+
+    DirtyRegion getDrawnRegion() {
+        return drawn;
+    }
+
+    DirtyRegion markPresented() {
+        // The returned region stays valid until the next call; it covers every pixel changed since last time.
+        unpresented.include(drawn, width, height);
+        DirtyRegion changed = presented;
+        changed.setEmpty();
+        changed.include(unpresented, width, height);
+        unpresented.setEmpty();
+        return changed;
+    }
+
+    GBuffer getGBuffer() {
+        if (gBuffer == null) {
+            GBuffer created = new GBuffer();
+            long bytes = created.resize(width, height);
+            created.clear();
+            gBuffer = created;
+            recordAllocation(bytes);
+        }
+        return gBuffer;
+    }
+
+    TextureSampler getImageTexture(Image image, boolean mipmapping) {
+        // Keyed by image identity: the pixels are unpacked again only for another image, or while the image is
+        // still loading in the background. The pyramid is built on the first mipmapped frame of an image.
+        if (image != textureImage || imageTexture == null || image.getProgress() < 1.0) {
+            textureImage = image;
+            imageTexture = ArrayTextureSampler.fromImage(image);
+            imageMipmaps = null;
+        }
+        if (!mipmapping) {
+            return imageTexture;
+        }
+        if (imageMipmaps == null) {
+            imageMipmaps = MipmapTexture.build(imageTexture, image.getUrl());
+        }
+        return imageMipmaps;
+    }
+
+    private void recordAllocation(long bytes) {
+        allocationCount++;
+        allocatedBytes += bytes;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.profiling.FramePresentEvent;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.nio.IntBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public final class FramePresenter {
+    // Shows frame buffers through images that wrap their color arrays, so presenting copies no pixels on the
+    // UI thread; only the changed rectangle is re-uploaded to the GPU texture.
+    private final ImageView view;
+    private final Map<FrameBuffer, Target> targets = new IdentityHashMap<>();
+
+    public FramePresenter(ImageView view) {
+        this.view = view;
+    }
+
+    public void present(FrameBuffer frameBuffer, double displayWidth, double displayHeight) {
+        // Must run on the UI thread, with the frame buffer no longer written by the renderer.
+        FramePresentEvent event = new FramePresentEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (frameBuffer.getWidth() == 0 || frameBuffer.getHeight() == 0) {
+            clear();
+            return;
+        }
+        Target target = targets.get(frameBuffer);
+        DirtyRegion changed = frameBuffer.markPresented();
+        if (target == null || target.pixels != frameBuffer.getColorBuffer()) {
+            // A resize reallocated the array: wrap the new one, which is uploaded in full on first display.
+            target = new Target(frameBuffer);
+            targets.put(frameBuffer, target);
+        } else if (!changed.isEmpty()) {
+            Rectangle2D region = new Rectangle2D(
+                    changed.getMinX(), changed.getMinY(), changed.getWidth(), changed.getHeight());
+            target.pixelBuffer.updateBuffer(buffer -> region);
+        }
+        if (view.getImage() != target.image) {
+            view.setImage(target.image);
+        }
+        // A frame rendered below display size is stretched by the GPU instead of being upscaled in software.
+        view.setFitWidth(displayWidth);
+        view.setFitHeight(displayHeight);
+        frameBuffer.recordPresent(System.nanoTime() - start);
+        RenderEngine.commitPresent(event, frameBuffer);
+    }
+
+    public void clear() {
+        view.setImage(null);
+    }
+
+    private static final class Target {
+        private final int[] pixels;
+        private final PixelBuffer<IntBuffer> pixelBuffer;
+        private final WritableImage image;
+
+        private Target(FrameBuffer frameBuffer) {
+            this.pixels = frameBuffer.getColorBuffer();
+            // PixelBuffer only takes premultiplied ARGB, which equals plain ARGB for the opaque pixels the renderer writes.
+            this.pixelBuffer = new PixelBuffer<>(
+                    frameBuffer.getWidth(),
+                    frameBuffer.getHeight(),
+                    IntBuffer.wrap(pixels),
+                    PixelFormat.getIntArgbPreInstance());
+            this.image = new WritableImage(pixelBuffer);
+        }
+    }
+}
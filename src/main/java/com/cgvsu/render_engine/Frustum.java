@@ -0,0 +1,56 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.model.BoundingSphere;
+
+final class Frustum {
+    private static final int PLANE_COUNT = 6;
+
+    // Each plane is (a, b, c, d) with a unit normal pointing inside: a*x + b*y + c*z + d >= 0.
+    private final float[] planes = new float[PLANE_COUNT * 4];
+
+    Frustum(Matrix4 matrix) {
+        // Gribb-Hartmann: for clip = M * p the planes are row3 +- row0/1/2 (-w <= x, y, z <= w).
+        // With M = P * V * Model the planes come out in model space, so model bounds need no transform.
+        for (int axis = 0; axis < 3; axis++) {
+            setPlane(axis * 2, matrix, axis, 1.0f);
+            setPlane(axis * 2 + 1, matrix, axis, -1.0f);
+        }
+    }
+
+    boolean intersects(BoundingSphere sphere) {
+        if (sphere == null) {
+            return false;
+        }
+        for (int plane = 0; plane < PLANE_COUNT; plane++) {
+            int base = plane * 4;
+            float distance = planes[base] * sphere.getCenterX()
+                    + planes[base + 1] * sphere.getCenterY()
+                    + planes[base + 2] * sphere.getCenterZ()
+                    + planes[base + 3];
+            if (distance < -sphere.getRadius()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setPlane(int plane, Matrix4 matrix, int row, float sign) {
+        float a = matrix.get(3, 0) + sign * matrix.get(row, 0);
+        float b = matrix.get(3, 1) + sign * matrix.get(row, 1);
+        float c = matrix.get(3, 2) + sign * matrix.get(row, 2);
+        float d = matrix.get(3, 3) + sign * matrix.get(row, 3);
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        if (length > 0) {
+            a /= length;
+            b /= length;
+            c /= length;
+            d /= length;
+        }
+        int base = plane * 4;
+        planes[base] = a;
+        planes[base + 1] = b;
+        planes[base + 2] = c;
+        planes[base + 3] = d;
+    }
+}
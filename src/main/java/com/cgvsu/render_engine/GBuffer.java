@@ -0,0 +1,101 @@
+package com.cgvsu.render_engine;
+
+import java.util.Arrays;
+
+final class GBuffer {
+    // The renderer has a single texture and base color, so the material id records which attributes a surface has.
+    static final byte MATERIAL_EMPTY = 0;
+    static final byte MATERIAL_SURFACE = 1;
+    static final byte MATERIAL_HAS_UV = 1 << 1;
+    static final byte MATERIAL_HAS_NORMAL = 1 << 2;
+
+    private static final float OCT_SCALE = 32767.0f;
+
+    private int width;
+    private int height;
+    private int[] normals = new int[0];
+    private float[] texU = new float[0];
+    private float[] texV = new float[0];
+    private byte[] materials = new byte[0];
+    // The texture's mip level for each pixel, resolved per triangle where its UV derivatives are known.
+    private short[] mipLevels = new short[0];
+
+    long resize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int pixelCount = width * height;
+        normals = new int[pixelCount];
+        texU = new float[pixelCount];
+        texV = new float[pixelCount];
+        materials = new byte[pixelCount];
+        mipLevels = new short[pixelCount];
+        return (long) pixelCount * (Integer.BYTES + Float.BYTES * 2 + Byte.BYTES + Short.BYTES);
+    }
+
+    void clear() {
+        // Only the material needs resetting: the other attributes are read where it is not empty.
+        Arrays.fill(materials, MATERIAL_EMPTY);
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int[] getNormals() {
+        return normals;
+    }
+
+    float[] getTexU() {
+        return texU;
+    }
+
+    float[] getTexV() {
+        return texV;
+    }
+
+    byte[] getMaterials() {
+        return materials;
+    }
+
+    short[] getMipLevels() {
+        return mipLevels;
+    }
+
+    static int packNormal(float x, float y, float z) {
+        // Octahedral encoding: two signed 16-bit components, accurate to about 1e-4 after decoding.
+        float sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        if (sum == 0.0f) {
+            return 0;
+        }
+        float u = x / sum;
+        float v = y / sum;
+        if (z < 0.0f) {
+            float foldedU = (1.0f - Math.abs(v)) * (u >= 0.0f ? 1.0f : -1.0f);
+            float foldedV = (1.0f - Math.abs(u)) * (v >= 0.0f ? 1.0f : -1.0f);
+            u = foldedU;
+            v = foldedV;
+        }
+        int packedU = Math.round(u * OCT_SCALE) & 0xFFFF;
+        int packedV = Math.round(v * OCT_SCALE) & 0xFFFF;
+        return (packedU << 16) | packedV;
+    }
+
+    static void unpackNormal(int packed, float[] out) {
+        float u = (short) (packed >>> 16) / OCT_SCALE;
+        float v = (short) packed / OCT_SCALE;
+        float z = 1.0f - Math.abs(u) - Math.abs(v);
+        if (z < 0.0f) {
+            float t = -z;
+            u += u >= 0.0f ? -t : t;
+            v += v >= 0.0f ? -t : t;
+        }
+        float length = (float) Math.sqrt(u * u + v * v + z * z);
+        out[0] = u / length;
+        out[1] = v / length;
+        out[2] = z / length;
+    }
+}
@@ -0,0 +1,263 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.profiling.TextureLoadEvent;
+
+import java.util.Arrays;
+
+public final class MipmapTexture implements TextureSampler {
+    // A mip pyramid down to 1x1. Every level is stored in 8x8 texel tiles with Morton order inside a tile, so
+    // the 2x2 footprint of a bilinear fetch, and the neighbouring pixels of a triangle, usually share cache lines.
+    private static final int TILE_SHIFT = 3;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int[] MORTON = mortonTable();
+    // A mip level is the level index shifted by BLEND_BITS plus the blend weight towards the next coarser level.
+    static final int BLEND_BITS = 8;
+    private static final int BLEND_MASK = (1 << BLEND_BITS) - 1;
+    // Blends between two levels closer than this to one of them fetch that level only.
+    private static final float MIN_BLEND = 1.0f / (1 << BLEND_BITS);
+    private final Level[] levels;
+
+    public MipmapTexture(int[] pixels, int width, int height) {
+        if (width < 0 || height < 0 || pixels.length < width * height) {
+            throw new IllegalArgumentException("Pixel array does not match " + width + "x" + height);
+        }
+        this.levels = buildLevels(pixels, width, height);
+    }
+
+    public static MipmapTexture build(ArrayTextureSampler base, String source) {
+        // Builds the whole pyramid, so call it once when the texture is loaded and keep the result next to it.
+        // The source only names the texture in profiling events and may be null.
+        TextureLoadEvent event = new TextureLoadEvent();
+        event.begin();
+        MipmapTexture texture = new MipmapTexture(base.getPixels(), base.getWidth(), base.getHeight());
+        event.commit(TextureLoadEvent.MIPMAP, source, base.getWidth(), base.getHeight(), texture.getAllocatedBytes());
+        return texture;
+    }
+
+    long getAllocatedBytes() {
+        long bytes = 0;
+        for (Level level : levels) {
+            bytes += (long) level.texels.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    int getLevelCount() {
+        return levels.length;
+    }
+
+    Level getLevel(int index) {
+        return levels[index];
+    }
+
+    @Override
+    public int sample(float u, float v) {
+        // Without derivatives the finest level is used.
+        return levels.length == 0 ? 0xFFFFFFFF : levels[0].sample(u, v);
+    }
+
+    @Override
+    public int mipLevel(float duDx, float dvDx, float duDy, float dvDy) {
+        // Affine UVs have constant derivatives over a triangle, so the level and the blend weight are per triangle.
+        if (levels.length <= 1) {
+            return 0;
+        }
+        float lod = levelOfDetail(duDx, dvDx, duDy, dvDy);
+        if (!(lod > MIN_BLEND)) {
+            return 0;
+        }
+        int finer = (int) lod;
+        if (finer >= levels.length - 1) {
+            return (levels.length - 1) << BLEND_BITS;
+        }
+        float blend = lod - finer;
+        if (blend < MIN_BLEND) {
+            return finer << BLEND_BITS;
+        }
+        if (blend > 1.0f - MIN_BLEND) {
+            return (finer + 1) << BLEND_BITS;
+        }
+        return (finer << BLEND_BITS) | (int) (blend * (1 << BLEND_BITS));
+    }
+
+    @Override
+    public int sample(float u, float v, int mipLevel) {
+        // Trilinear between the level and the next coarser one; a whole level is a single bilinear fetch.
+        if (levels.length == 0) {
+            return 0xFFFFFFFF;
+        }
+        Level finer = levels[mipLevel >>> BLEND_BITS];
+        int weight = mipLevel & BLEND_MASK;
+        if (weight == 0) {
+            return finer.sample(u, v);
+        }
+        return lerpColor(finer.sample(u, v), levels[(mipLevel >>> BLEND_BITS) + 1].sample(u, v), weight);
+    }
+
+    float levelOfDetail(float duDx, float dvDx, float duDy, float dvDy) {
+        // log2 of the longer screen-pixel footprint in level-0 texels.
+        Level base = levels[0];
+        float xx = duDx * base.width;
+        float xy = dvDx * base.height;
+        float yx = duDy * base.width;
+        float yy = dvDy * base.height;
+        float footprintSquared = Math.max(xx * xx + xy * xy, yx * yx + yy * yy);
+        return (float) (0.5 * Math.log(footprintSquared) / Math.log(2.0));
+    }
+
+    private static Level[] buildLevels(int[] pixels, int width, int height) {
+        if (width == 0 || height == 0) {
+            return new Level[0];
+        }
+        int count = 1;
+        for (int w = width, h = height; w > 1 || h > 1; w = Math.max(1, w >> 1), h = Math.max(1, h >> 1)) {
+            count++;
+        }
+        Level[] levels = new Level[count];
+        int[] current = pixels;
+        int w = width;
+        int h = height;
+        for (int level = 0; level < count; level++) {
+            levels[level] = new Level(current, w, h);
+            if (level + 1 < count) {
+                int nextW = Math.max(1, w >> 1);
+                int nextH = Math.max(1, h >> 1);
+                current = downsample(current, w, h, nextW, nextH);
+                w = nextW;
+                h = nextH;
+            }
+        }
+        return levels;
+    }
+
+    private static int[] downsample(int[] pixels, int width, int height, int nextWidth, int nextHeight) {
+        // Box filter on row-major ARGB. Measured in 1/nextWidth of a source texel, output texel x covers
+        // [x * width, (x + 1) * width) and source texel i covers [i * nextWidth, (i + 1) * nextWidth); each source
+        // texel is weighted by the overlap, likewise vertically. Even sizes give the plain 2x2 average; an odd row
+        // or column is split between the two outputs it straddles instead of being dropped.
+        int[] next = new int[nextWidth * nextHeight];
+        long total = (long) width * height;
+        long[] sums = new long[4];
+        for (int y = 0; y < nextHeight; y++) {
+            long top = (long) y * height;
+            long bottom = top + height;
+            for (int x = 0; x < nextWidth; x++) {
+                long left = (long) x * width;
+                long right = left + width;
+                Arrays.fill(sums, 0);
+                for (int sy = (int) (top / nextHeight); (long) sy * nextHeight < bottom; sy++) {
+                    long weightY = overlap(top, bottom, sy, nextHeight);
+                    for (int sx = (int) (left / nextWidth); (long) sx * nextWidth < right; sx++) {
+                        long weightX = overlap(left, right, sx, nextWidth);
+                        int color = pixels[sy * width + sx];
+                        for (int channel = 0; channel < 4; channel++) {
+                            sums[channel] += ((color >>> (channel * 8)) & 0xFF) * weightX * weightY;
+                        }
+                    }
+                }
+                int result = 0;
+                for (int channel = 0; channel < 4; channel++) {
+                    result |= (int) ((sums[channel] + total / 2) / total) << (channel * 8);
+                }
+                next[y * nextWidth + x] = result;
+            }
+        }
+        return next;
+    }
+
+    private static long overlap(long start, long end, int texel, int texelSize) {
+        return Math.min(end, (long) (texel + 1) * texelSize) - Math.max(start, (long) texel * texelSize);
+    }
+
+    static int lerpColor(int a, int b, int weight) {
+        // Two channels per multiply: 8-bit channels spread into 16-bit lanes, weight in 0..256.
+        int inverse = 256 - weight;
+        int redBlue = (((a & 0x00FF00FF) * inverse + (b & 0x00FF00FF) * weight) >>> 8) & 0x00FF00FF;
+        int alphaGreen = (((a >>> 8) & 0x00FF00FF) * inverse + ((b >>> 8) & 0x00FF00FF) * weight) & 0xFF00FF00;
+        return alphaGreen | redBlue;
+    }
+
+    private static int[] mortonTable() {
+        // Index inside a tile for (y & 7) << 3 | (x & 7): x bits on even positions, y bits on odd ones.
+        int[] table = new int[TILE_SIZE * TILE_SIZE];
+        for (int y = 0; y < TILE_SIZE; y++) {
+            for (int x = 0; x < TILE_SIZE; x++) {
+                int code = 0;
+                for (int bit = 0; bit < TILE_SHIFT; bit++) {
+                    code |= ((x >> bit) & 1) << (bit * 2);
+                    code |= ((y >> bit) & 1) << (bit * 2 + 1);
+                }
+                table[(y << TILE_SHIFT) | x] = code;
+            }
+        }
+        return table;
+    }
+
+    private static float clamp01(float value) {
+        if (value < 0.0f) {
+            return 0.0f;
+        }
+        if (value > 1.0f) {
+            return 1.0f;
+        }
+        return value;
+    }
+
+    static final class Level implements TextureSampler {
+        private final int width;
+        private final int height;
+        private final float maxX;
+        private final float maxY;
+        private final int tilesX;
+        private final int[] texels;
+
+        private Level(int[] pixels, int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.maxX = width - 1;
+            this.maxY = height - 1;
+            this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+            int tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+            this.texels = new int[(tilesX * tilesY) << (TILE_SHIFT * 2)];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    texels[index(x, y)] = pixels[y * width + x];
+                }
+            }
+        }
+
+        int getWidth() {
+            return width;
+        }
+
+        int getHeight() {
+            return height;
+        }
+
+        int texel(int x, int y) {
+            return texels[index(x, y)];
+        }
+
+        private int index(int x, int y) {
+            int tile = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+            return (tile << (TILE_SHIFT * 2)) | MORTON[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)];
+        }
+
+        @Override
+        public int sample(float u, float v) {
+            // Bilinear, clamped to the edge; texel centers map to u, v in [0, 1] as in ImageTextureSampler.
+            float fx = clamp01(u) * maxX;
+            float fy = (1.0f - clamp01(v)) * maxY;
+            int x0 = (int) fx;
+            int y0 = (int) fy;
+            int x1 = Math.min(x0 + 1, width - 1);
+            int y1 = Math.min(y0 + 1, height - 1);
+            int weightX = (int) ((fx - x0) * 256.0f);
+            int weightY = (int) ((fy - y0) * 256.0f);
+            int top = lerpColor(texel(x0, y0), texel(x1, y0), weightX);
+            int bottom = lerpColor(texel(x0, y1), texel(x1, y1), weightX);
+            return lerpColor(top, bottom, weightY);
+        }
+    }
+}
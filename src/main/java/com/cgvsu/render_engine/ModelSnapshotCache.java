@@ -0,0 +1,53 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelOperations;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ModelSnapshotCache {
+    // Live model -> deep copy handed to the render thread; a copy is rebuilt only after Model.markModified().
+    // Levels are never edited, so the copy shares them, and levels that arrive later are attached to it.
+    private final Map<Model, Entry> entries = new IdentityHashMap<>();
+
+    public Model snapshot(Model model) {
+        Entry entry = entries.get(model);
+        List<Model> levels = model.getLevelsOfDetail();
+        if (entry == null || entry.version != model.getVersion()) {
+            Model copy = new Model();
+            ModelOperations.copyInto(model, copy);
+            copy.setLevelsOfDetail(levels, copy.getVersion());
+            entry = new Entry(model.getVersion(), levels, copy);
+            entries.put(model, entry);
+        } else if (entry.levels != levels) {
+            // Same geometry, so the copy stays valid; only its level list is replaced.
+            entry.copy.setLevelsOfDetail(levels, entry.copy.getVersion());
+            entry.levels = levels;
+        }
+        return entry.copy;
+    }
+
+    public void retainAll(Collection<Model> liveModels) {
+        // Drops copies of models that were removed from the scene.
+        Map<Model, Boolean> live = new IdentityHashMap<>();
+        for (Model model : liveModels) {
+            live.put(model, Boolean.TRUE);
+        }
+        entries.keySet().retainAll(live.keySet());
+    }
+
+    private static final class Entry {
+        private final long version;
+        private List<Model> levels;
+        private final Model copy;
+
+        private Entry(long version, List<Model> levels, Model copy) {
+            this.version = version;
+            this.levels = levels;
+            this.copy = copy;
+        }
+    }
+}
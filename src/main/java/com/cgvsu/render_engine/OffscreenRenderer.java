@@ -0,0 +1,103 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+import com.cgvsu.profiling.FramePresentEvent;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.IntBuffer;
+import java.util.List;
+
+public final class OffscreenRenderer {
+    // Renders without a GraphicsContext or a running JavaFX toolkit, for batch jobs and machines without a display.
+    // Keeps one frame buffer between calls, so use one instance per thread.
+    private final FrameBuffer frameBuffer = new FrameBuffer();
+    private RenderStats lastStats;
+
+    public void render(
+            final Camera camera,
+            final List<Model> meshes,
+            final TextureSampler texture,
+            final RenderSettings settings,
+            final int width,
+            final int height,
+            final int[] target) {
+        // Writes width * height ARGB pixels, row by row, to the start of target; the rasterizer draws straight
+        // into it, so there is no copy.
+        int pixelCount = checkedPixelCount(width, height);
+        if (target.length < pixelCount) {
+            throw new IllegalArgumentException("Target holds " + target.length + " pixels, " + pixelCount + " needed");
+        }
+        frameBuffer.attachColorBuffer(target, width, height);
+        draw(camera, meshes, texture, settings, width, height);
+    }
+
+    public void render(
+            final Camera camera,
+            final List<Model> meshes,
+            final TextureSampler texture,
+            final RenderSettings settings,
+            final int width,
+            final int height,
+            final IntBuffer target) {
+        // Writes at the buffer's position and leaves the position unchanged. A heap buffer positioned at the start
+        // of its array is drawn into directly; any other buffer gets one copy of the frame.
+        int pixelCount = checkedPixelCount(width, height);
+        if (target.remaining() < pixelCount) {
+            throw new IllegalArgumentException(
+                    "Target has room for " + target.remaining() + " pixels, " + pixelCount + " needed");
+        }
+        if (target.hasArray() && target.arrayOffset() + target.position() == 0) {
+            render(camera, meshes, texture, settings, width, height, target.array());
+            return;
+        }
+        frameBuffer.attachColorBuffer(null, width, height);
+        int[] colors = draw(camera, meshes, texture, settings, width, height);
+        FramePresentEvent event = new FramePresentEvent();
+        event.begin();
+        long start = System.nanoTime();
+        target.put(target.position(), colors, 0, pixelCount);
+        recordCopy(event, start);
+    }
+
+    public BufferedImage renderImage(
+            final Camera camera,
+            final List<Model> meshes,
+            final TextureSampler texture,
+            final RenderSettings settings,
+            final int width,
+            final int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        render(camera, meshes, texture, settings, width, height, pixels);
+        return image;
+    }
+
+    public RenderStats getLastStats() {
+        // Statistics of the last render call; a copy into an IntBuffer target counts as presenting.
+        return lastStats;
+    }
+
+    private int[] draw(
+            final Camera camera,
+            final List<Model> meshes,
+            final TextureSampler texture,
+            final RenderSettings settings,
+            final int width,
+            final int height) {
+        lastStats = RenderEngine.renderFrame(camera, meshes, width, height, texture, settings, frameBuffer);
+        return frameBuffer.getColorBuffer();
+    }
+
+    private void recordCopy(FramePresentEvent event, long start) {
+        frameBuffer.recordPresent(System.nanoTime() - start);
+        RenderEngine.commitPresent(event, frameBuffer);
+    }
+
+    private static int checkedPixelCount(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image size must be positive: " + width + "x" + height);
+        }
+        return Math.multiplyExact(width, height);
+    }
+}
@@ -6,19 +6,34 @@ import com.cgvsu.math.vectors.Vector2f;
 import com.cgvsu.math.vectors.Vector3f;
 
 public final class Rasterizer {
+    static final int WIREFRAME_COLOR = 0xFFFFFFFF;
     private static final float AMBIENT = 0.2f;
     private static final float DIFFUSE = 0.8f;
+    private static final int SUBPIXEL_BITS = 4;
+    private static final int SUBPIXEL_SCALE = 1 << SUBPIXEL_BITS;
+    static final float GUARD_BAND = 1 << 22;
+    private static final int BLOCK_SHIFT = CoarseDepthBuffer.BLOCK_SHIFT;
+    private static final int BLOCK_SIZE = CoarseDepthBuffer.BLOCK_SIZE;
+    // Bounding-box extent, in sub-pixels, below which all edge values of a triangle fit in an int.
+    private static final long MAX_SIMD_EXTENT = 1 << 14;
+    // The Vector API is an incubator module: it is only usable when the JVM was started with it.
+    static final boolean VECTOR_KERNEL_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    // Kernels of the overloads that take no cache: one set per calling thread, reused for every triangle it draws.
+    private static final ThreadLocal<FragmentKernel.Cache> THREAD_KERNELS =
+            ThreadLocal.withInitial(FragmentKernel.Cache::new);
 
     private Rasterizer() {
     }
 
     public static final class Vertex {
-        public final float x;
-        public final float y;
-        public final float z;
-        public final Vector3f position;
-        public final Vector3f normal;
-        public final Vector2f texCoord;
+        // Not final: the renderer refills pooled vertices every frame (see VertexPool).
+        public float x;
+        public float y;
+        public float z;
+        public Vector3f position;
+        public Vector3f normal;
+        public Vector2f texCoord;
         /**
          * 
          * @param x
@@ -36,11 +51,26 @@ public final class Rasterizer {
             this.normal = normal;
             this.texCoord = texCoord;
         }
+
+        Vertex set(float x, float y, float z, Vector3f position, Vector3f normal, Vector2f texCoord) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.position = position;
+            this.normal = normal;
+            this.texCoord = texCoord;
+            return this;
+        }
+    }
+
+    static FragmentKernel.Cache threadKernels() {
+        return THREAD_KERNELS.get();
     }
 
     public static void clearBuffers(int width, int height, int[] colorBuffer, float[] depthBuffer, int clearColor) {
-        Arrays.fill(colorBuffer, clearColor);
-        Arrays.fill(depthBuffer, Float.POSITIVE_INFINITY);
+        // Only the first width * height entries: a color array lent by the caller may be longer.
+        Arrays.fill(colorBuffer, 0, width * height, clearColor);
+        Arrays.fill(depthBuffer, 0, width * height, Float.POSITIVE_INFINITY);
     }
 
     public static void rasterizeTriangle(
@@ -54,61 +84,228 @@ public final class Rasterizer {
             int baseColor,
             TextureSampler textureSampler,
             Vector3f lightPos) {
+        rasterizeTriangle(
+                v0, v1, v2, width, height, colorBuffer, depthBuffer, baseColor, textureSampler, lightPos, null,
+                null, DepthPass.SINGLE, false, 0, 0, width - 1, height - 1, null, threadKernels());
+    }
+
+    static void rasterizeTriangle(
+            Vertex v0,
+            Vertex v1,
+            Vertex v2,
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            int baseColor,
+            TextureSampler textureSampler,
+            Vector3f lightPos,
+            CoarseDepthBuffer coarseDepth,
+            GBuffer gBuffer,
+            DepthPass pass,
+            boolean vectorized,
+            int clipMinX,
+            int clipMinY,
+            int clipMaxX,
+            int clipMaxY) {
+        rasterizeTriangle(
+                v0, v1, v2, width, height, colorBuffer, depthBuffer, baseColor, textureSampler, lightPos, coarseDepth,
+                gBuffer, pass, vectorized, clipMinX, clipMinY, clipMaxX, clipMaxY, null, threadKernels());
+    }
+
+    static void rasterizeTriangle(
+            Vertex v0,
+            Vertex v1,
+            Vertex v2,
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            int baseColor,
+            TextureSampler textureSampler,
+            Vector3f lightPos,
+            CoarseDepthBuffer coarseDepth,
+            GBuffer gBuffer,
+            DepthPass pass,
+            boolean vectorized,
+            int clipMinX,
+            int clipMinY,
+            int clipMaxX,
+            int clipMaxY,
+            long[] pixelCounts,
+            FragmentKernel.Cache kernels) {
         // Ксюня: растеризация треугольника с Z-буфером, текстурой и освещением (пункты 13-14).
-        float area = edgeFunction(v0.x, v0.y, v1.x, v1.y, v2.x, v2.y);
-        if (Math.abs(area) < 1e-6f) {
+        // The clip rectangle only narrows the scanned pixels, so tiled callers get the same result per pixel.
+        if (!isInsideGuardBand(v0) || !isInsideGuardBand(v1) || !isInsideGuardBand(v2)) {
+            return;
+        }
+        // Snap to a sub-pixel grid: edge functions become exact integers, so shared edges are watertight.
+        long x0 = toFixed(v0.x);
+        long y0 = toFixed(v0.y);
+        long x1 = toFixed(v1.x);
+        long y1 = toFixed(v1.y);
+        long x2 = toFixed(v2.x);
+        long y2 = toFixed(v2.y);
+
+        long area = edgeFunction(x0, y0, x1, y1, x2, y2);
+        if (area == 0) {
+            return;
+        }
+        // Normalize the winding so that the interior is always positive.
+        long sign = area > 0 ? 1 : -1;
+        area *= sign;
+
+        int minX = Math.max(clipMinX, (int) Math.floorDiv(Math.min(x0, Math.min(x1, x2)), SUBPIXEL_SCALE));
+        int maxX = Math.min(clipMaxX, (int) Math.floorDiv(Math.max(x0, Math.max(x1, x2)), SUBPIXEL_SCALE));
+        int minY = Math.max(clipMinY, (int) Math.floorDiv(Math.min(y0, Math.min(y1, y2)), SUBPIXEL_SCALE));
+        int maxY = Math.min(clipMaxY, (int) Math.floorDiv(Math.max(y0, Math.max(y1, y2)), SUBPIXEL_SCALE));
+        if (minX > maxX || minY > maxY) {
             return;
         }
 
-        int minX = Math.max(0, (int) Math.floor(Math.min(v0.x, Math.min(v1.x, v2.x))));
-        int maxX = Math.min(width - 1, (int) Math.ceil(Math.max(v0.x, Math.max(v1.x, v2.x))));
-        int minY = Math.max(0, (int) Math.floor(Math.min(v0.y, Math.min(v1.y, v2.y))));
-        int maxY = Math.min(height - 1, (int) Math.ceil(Math.max(v0.y, Math.max(v1.y, v2.y))));
+        // Edge i is the edge opposite to vertex i; E(p) = a * px + b * py + c.
+        long a0 = (y2 - y1) * sign;
+        long b0 = (x1 - x2) * sign;
+        long a1 = (y0 - y2) * sign;
+        long b1 = (x2 - x0) * sign;
+        long a2 = (y1 - y0) * sign;
+        long b2 = (x0 - x1) * sign;
+        long bias0 = isTopLeft(a0, b0) ? 0 : -1;
+        long bias1 = isTopLeft(a1, b1) ? 0 : -1;
+        long bias2 = isTopLeft(a2, b2) ? 0 : -1;
+
+        long startX = (long) minX * SUBPIXEL_SCALE + SUBPIXEL_SCALE / 2;
+        long startY = (long) minY * SUBPIXEL_SCALE + SUBPIXEL_SCALE / 2;
+        long e0Origin = edgeFunction(x1, y1, x2, y2, startX, startY) * sign;
+        long e1Origin = edgeFunction(x2, y2, x0, y0, startX, startY) * sign;
+        long e2Origin = edgeFunction(x0, y0, x1, y1, startX, startY) * sign;
+        long stepX0 = a0 * SUBPIXEL_SCALE;
+        long stepX1 = a1 * SUBPIXEL_SCALE;
+        long stepX2 = a2 * SUBPIXEL_SCALE;
+        long stepY0 = b0 * SUBPIXEL_SCALE;
+        long stepY1 = b1 * SUBPIXEL_SCALE;
+        long stepY2 = b2 * SUBPIXEL_SCALE;
 
         float invArea = 1.0f / area;
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                float px = x + 0.5f;
-                float py = y + 0.5f;
-                float w0 = edgeFunction(v1.x, v1.y, v2.x, v2.y, px, py) * invArea;
-                float w1 = edgeFunction(v2.x, v2.y, v0.x, v0.y, px, py) * invArea;
-                float w2 = edgeFunction(v0.x, v0.y, v1.x, v1.y, px, py) * invArea;
-
-                if (w0 < 0.0f || w1 < 0.0f || w2 < 0.0f) {
+        float nearestDepth = conservativeNearestDepth(v0.z, v1.z, v2.z);
+        boolean depthOnly = pass == DepthPass.DEPTH_ONLY;
+        boolean shadeEqual = pass == DepthPass.SHADE_EQUAL;
+        // Null in the depth-only pass; otherwise a kernel specialized for this triangle's attributes.
+        FragmentKernel fragments = FragmentKernel.select(
+                v0, v1, v2, colorBuffer, depthBuffer, gBuffer, pass, baseColor, textureSampler, lightPos, kernels);
+
+        // The SIMD kernel works on int lanes; small triangles keep every edge value well inside int range.
+        long extentX = Math.max(x0, Math.max(x1, x2)) - Math.min(x0, Math.min(x1, x2));
+        long extentY = Math.max(y0, Math.max(y1, y2)) - Math.min(y0, Math.min(y1, y2));
+        boolean simd = vectorized && VECTOR_KERNEL_AVAILABLE
+                && extentX < MAX_SIMD_EXTENT && extentY < MAX_SIMD_EXTENT;
+        float[] lanes = kernels.lanes;
+        FragmentKernel.EdgeWalk walk = kernels.walk;
+        if (!depthOnly) {
+            walk.stepX0 = stepX0;
+            walk.stepX1 = stepX1;
+            walk.stepX2 = stepX2;
+            walk.stepY0 = stepY0;
+            walk.stepY1 = stepY1;
+            walk.stepY2 = stepY2;
+            walk.bias0 = bias0;
+            walk.bias1 = bias1;
+            walk.bias2 = bias2;
+            walk.invArea = invArea;
+            walk.z0 = v0.z;
+            walk.z1 = v1.z;
+            walk.z2 = v2.z;
+            walk.shadeEqual = shadeEqual;
+            walk.stride = width;
+        }
+        // Counted in locals and added once, so statistics cost nothing per pixel beyond a register increment.
+        long tested = 0;
+        long passedDepth = 0;
+
+        // Walk the bounding box in 8x8 blocks aligned with the coarse depth buffer.
+        for (int blockY = minY >> BLOCK_SHIFT; blockY <= maxY >> BLOCK_SHIFT; blockY++) {
+            int blockMinY = Math.max(minY, blockY << BLOCK_SHIFT);
+            int blockMaxY = Math.min(maxY, (blockY << BLOCK_SHIFT) + BLOCK_SIZE - 1);
+            for (int blockX = minX >> BLOCK_SHIFT; blockX <= maxX >> BLOCK_SHIFT; blockX++) {
+                if (coarseDepth != null && coarseDepth.isOccluded(blockX, blockY, nearestDepth)) {
                     continue;
                 }
+                int blockMinX = Math.max(minX, blockX << BLOCK_SHIFT);
+                int blockMaxX = Math.min(maxX, (blockX << BLOCK_SHIFT) + BLOCK_SIZE - 1);
+                long offsetX = blockMinX - minX;
+                long offsetY = blockMinY - minY;
+                long e0Row = e0Origin + offsetX * stepX0 + offsetY * stepY0;
+                long e1Row = e1Origin + offsetX * stepX1 + offsetY * stepY1;
+                long e2Row = e2Origin + offsetX * stepX2 + offsetY * stepY2;
+                boolean written = false;
+                tested += (long) (blockMaxX - blockMinX + 1) * (blockMaxY - blockMinY + 1);
 
-                float depth = w0 * v0.z + w1 * v1.z + w2 * v2.z;
-                int index = y * width + x;
-                if (depth >= depthBuffer[index]) {
+                if (!simd && !depthOnly) {
+                    // The kernel walks the block itself, so its per-pixel write is a direct call.
+                    int passed = fragments.shadeBlock(walk, blockMinY * width + blockMinX,
+                            blockMaxX - blockMinX + 1, blockMaxY - blockMinY + 1, e0Row, e1Row, e2Row);
+                    passedDepth += passed;
+                    written = passed > 0 && !shadeEqual;
+                    if (written && coarseDepth != null) {
+                        coarseDepth.update(blockX, blockY, depthBuffer);
+                    }
                     continue;
                 }
+                for (int y = blockMinY; y <= blockMaxY; y++) {
+                    int rowIndex = y * width + blockMinX;
+                    if (simd) {
+                        // One block row is one 8-lane vector: coverage and depth test for all lanes at once.
+                        long passed = VectorSpanKernel.coverRow(
+                                (int) e0Row, (int) e1Row, (int) e2Row,
+                                (int) stepX0, (int) stepX1, (int) stepX2,
+                                (int) bias0, (int) bias1, (int) bias2,
+                                blockMaxX - blockMinX + 1, invArea, v0.z, v1.z, v2.z,
+                                depthBuffer, rowIndex, shadeEqual, depthOnly, lanes);
+                        if (passed != 0) {
+                            written |= !shadeEqual;
+                            passedDepth += Long.bitCount(passed);
+                            if (!depthOnly) {
+                                fragments.writeLanes(rowIndex, passed, lanes);
+                            }
+                        }
+                    } else {
+                        // Depth-only pass: no kernel, just the depth store.
+                        long e0 = e0Row;
+                        long e1 = e1Row;
+                        long e2 = e2Row;
+                        for (int index = rowIndex, end = rowIndex + blockMaxX - blockMinX; index <= end;
+                                index++, e0 += stepX0, e1 += stepX1, e2 += stepX2) {
+                            // Top-left rule: pixels exactly on a right or bottom edge belong to the neighbouring triangle.
+                            if (((e0 + bias0) | (e1 + bias1) | (e2 + bias2)) < 0) {
+                                continue;
+                            }
+                            float w0 = e0 * invArea;
+                            float w1 = e1 * invArea;
+                            float w2 = e2 * invArea;
 
-                int sampledColor = baseColor;
-                if (textureSampler != null && v0.texCoord != null && v1.texCoord != null && v2.texCoord != null) {
-                    float u = w0 * v0.texCoord.getX() + w1 * v1.texCoord.getX() + w2 * v2.texCoord.getX();
-                    float v = w0 * v0.texCoord.getY() + w1 * v1.texCoord.getY() + w2 * v2.texCoord.getY();
-                    sampledColor = textureSampler.sample(u, v);
+                            float depth = w0 * v0.z + w1 * v1.z + w2 * v2.z;
+                            if (depth >= depthBuffer[index]) {
+                                continue;
+                            }
+                            depthBuffer[index] = depth;
+                            written = true;
+                            passedDepth++;
+                        }
+                    }
+                    e0Row += stepY0;
+                    e1Row += stepY1;
+                    e2Row += stepY2;
                 }
 
-                float intensity = 1.0f;
-                if (lightPos != null && v0.normal != null && v1.normal != null && v2.normal != null) {
-                    Vector3f interpolatedNormal = v0.normal.mult(w0)
-                            .add(v1.normal.mult(w1))
-                            .add(v2.normal.mult(w2))
-                            .normalize();
-                    Vector3f interpolatedPos = v0.position.mult(w0)
-                            .add(v1.position.mult(w1))
-                            .add(v2.position.mult(w2));
-                    Vector3f lightDir = lightPos.sub(interpolatedPos).normalize();
-                    float diffuse = Math.max(0.0f, interpolatedNormal.scalarProd(lightDir));
-                    intensity = clamp01(AMBIENT + DIFFUSE * diffuse);
+                if (written && coarseDepth != null) {
+                    coarseDepth.update(blockX, blockY, depthBuffer);
                 }
-
-                colorBuffer[index] = applyLighting(sampledColor, intensity);
-                depthBuffer[index] = depth;
             }
         }
+        if (pixelCounts != null) {
+            pixelCounts[RenderStats.PIXELS_TESTED] += tested;
+            pixelCounts[RenderStats.PIXELS_WRITTEN] += passedDepth;
+        }
     }
 
     public static void rasterizeLine(
@@ -119,51 +316,260 @@ public final class Rasterizer {
             int[] colorBuffer,
             float[] depthBuffer,
             int color) {
+        rasterizeLine(v0, v1, width, height, colorBuffer, depthBuffer, null, color, 0, 0, width - 1, height - 1);
+    }
+
+    static void rasterizeLine(
+            Vertex v0,
+            Vertex v1,
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            GBuffer gBuffer,
+            int color,
+            int clipMinX,
+            int clipMinY,
+            int clipMaxX,
+            int clipMaxY) {
+        rasterizeLine(
+                v0.x, v0.y, v0.z, v1.x, v1.y, v1.z, width, height, colorBuffer, depthBuffer, gBuffer, color,
+                clipMinX, clipMinY, clipMaxX, clipMaxY);
+    }
+
+    static void rasterizeLine(
+            float x0,
+            float y0,
+            float z0,
+            float x1,
+            float y1,
+            float z1,
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            GBuffer gBuffer,
+            int color,
+            int clipMinX,
+            int clipMinY,
+            int clipMaxX,
+            int clipMaxY) {
         // Ксюня: растеризация линий для режима сетки с Z-буфером (пункт 15).
-        float dx = v1.x - v0.x;
-        float dy = v1.y - v0.y;
-        float dz = v1.z - v0.z;
-        int steps = (int) Math.max(Math.abs(dx), Math.abs(dy));
+        // Integer Bresenham between the rounded end points. The steps inside the clip rectangle are found up front,
+        // so a line that is mostly off-screen (or outside the current tile) only walks the pixels it can write.
+        if (!insideGuardBand(x0, y0, width, height) || !insideGuardBand(x1, y1, width, height)) {
+            // Far-away end points are first cut to the guard band: it depends only on the viewport, so every
+            // tile still steps the same line, and the integer math below cannot overflow.
+            float[] ends = {x0, y0, z0, x1, y1, z1};
+            if (!clipToGuardBand(ends, width, height)) {
+                return;
+            }
+            x0 = ends[0];
+            y0 = ends[1];
+            z0 = ends[2];
+            x1 = ends[3];
+            y1 = ends[4];
+            z1 = ends[5];
+        }
+        int startX = Math.round(x0);
+        int startY = Math.round(y0);
+        int endX = Math.round(x1);
+        int endY = Math.round(y1);
+        int dx = Math.abs(endX - startX);
+        int dy = Math.abs(endY - startY);
+        int steps = Math.max(dx, dy);
         if (steps == 0) {
             return;
         }
 
-        float stepX = dx / steps;
-        float stepY = dy / steps;
-        float stepZ = dz / steps;
-
-        float x = v0.x;
-        float y = v0.y;
-        float z = v0.z;
-        for (int i = 0; i <= steps; i++) {
-            int px = Math.round(x);
-            int py = Math.round(y);
-            if (px >= 0 && px < width && py >= 0 && py < height) {
-                int index = py * width + px;
-                if (z < depthBuffer[index]) {
-                    depthBuffer[index] = z;
-                    colorBuffer[index] = color;
+        boolean xMajor = dx >= dy;
+        int major0 = xMajor ? startX : startY;
+        int minor0 = xMajor ? startY : startX;
+        int majorStep = (xMajor ? endX - startX : endY - startY) < 0 ? -1 : 1;
+        int minorStep = (xMajor ? endY - startY : endX - startX) < 0 ? -1 : 1;
+        long majorDelta = xMajor ? dx : dy;
+        long minorDelta = xMajor ? dy : dx;
+        int majorMin = xMajor ? clipMinX : clipMinY;
+        int majorMax = xMajor ? clipMaxX : clipMaxY;
+        int minorMin = xMajor ? clipMinY : clipMinX;
+        int minorMax = xMajor ? clipMaxY : clipMaxX;
+
+        // Step i is at major0 + majorStep * i and minor0 + minorStep * k(i),
+        // with k(i) = floor((2 * i * minorDelta + majorDelta) / (2 * majorDelta)).
+        long first = 0;
+        long last = steps;
+        if (majorStep > 0) {
+            first = Math.max(first, majorMin - major0);
+            last = Math.min(last, majorMax - major0);
+        } else {
+            first = Math.max(first, major0 - majorMax);
+            last = Math.min(last, major0 - majorMin);
+        }
+        long minK = minorStep > 0 ? minorMin - minor0 : minor0 - minorMax;
+        long maxK = minorStep > 0 ? minorMax - minor0 : minor0 - minorMin;
+        if (maxK < 0 || minK > minorDelta) {
+            return;
+        }
+        if (minK > 0) {
+            first = Math.max(first, -Math.floorDiv(-(2 * majorDelta * minK - majorDelta), 2 * minorDelta));
+        }
+        if (maxK < minorDelta) {
+            last = Math.min(last, Math.floorDiv(2 * majorDelta * (maxK + 1) - majorDelta - 1, 2 * minorDelta));
+        }
+        if (first > last) {
+            return;
+        }
+
+        long numerator = 2 * first * minorDelta + majorDelta;
+        long k = numerator / (2 * majorDelta);
+        long error = numerator - k * 2 * majorDelta;
+        int major = (int) (major0 + majorStep * first);
+        int minor = (int) (minor0 + minorStep * k);
+        float stepZ = (z1 - z0) / steps;
+        byte[] materials = gBuffer != null ? gBuffer.getMaterials() : null;
+        for (int i = (int) first; i <= last; i++) {
+            int index = xMajor ? minor * width + major : major * width + minor;
+            float z = z0 + stepZ * i;
+            if (z < depthBuffer[index]) {
+                depthBuffer[index] = z;
+                colorBuffer[index] = color;
+                if (materials != null) {
+                    // Keep the line color: the lighting pass skips empty G-buffer pixels.
+                    materials[index] = GBuffer.MATERIAL_EMPTY;
                 }
             }
-            x += stepX;
-            y += stepY;
-            z += stepZ;
+            major += majorStep;
+            error += 2 * minorDelta;
+            if (error >= 2 * majorDelta) {
+                error -= 2 * majorDelta;
+                minor += minorStep;
+            }
         }
     }
 
-    private static float edgeFunction(float ax, float ay, float bx, float by, float px, float py) {
+    private static boolean insideGuardBand(float x, float y, int width, int height) {
+        return x >= -GUARD_BAND && x <= width + GUARD_BAND && y >= -GUARD_BAND && y <= height + GUARD_BAND;
+    }
+
+    private static boolean clipToGuardBand(float[] ends, int width, int height) {
+        // Liang-Barsky against the viewport grown by GUARD_BAND; returns false if nothing is left.
+        float minX = -GUARD_BAND;
+        float minY = -GUARD_BAND;
+        float maxX = width + GUARD_BAND;
+        float maxY = height + GUARD_BAND;
+        float x0 = ends[0];
+        float y0 = ends[1];
+        float x1 = ends[3];
+        float y1 = ends[4];
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float[] p = {-dx, dx, -dy, dy};
+        float[] q = {x0 - minX, maxX - x0, y0 - minY, maxY - y0};
+        float enter = 0.0f;
+        float exit = 1.0f;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0.0f) {
+                if (q[i] < 0.0f) {
+                    return false;
+                }
+                continue;
+            }
+            float t = q[i] / p[i];
+            if (p[i] < 0.0f) {
+                enter = Math.max(enter, t);
+            } else {
+                exit = Math.min(exit, t);
+            }
+        }
+        if (!(enter <= exit)) {
+            return false;
+        }
+        float dz = ends[5] - ends[2];
+        float z0 = ends[2];
+        ends[0] = x0 + dx * enter;
+        ends[1] = y0 + dy * enter;
+        ends[2] = z0 + dz * enter;
+        ends[3] = x0 + dx * exit;
+        ends[4] = y0 + dy * exit;
+        ends[5] = z0 + dz * exit;
+        return true;
+    }
+
+    static int triangleMipLevel(TextureSampler textureSampler, Vertex v0, Vertex v1, Vertex v2) {
+        // UVs are interpolated affinely in screen space, so their derivatives are constant over the triangle.
+        float e1x = v1.x - v0.x;
+        float e1y = v1.y - v0.y;
+        float e2x = v2.x - v0.x;
+        float e2y = v2.y - v0.y;
+        float area = e1x * e2y - e2x * e1y;
+        if (Math.abs(area) < 1e-12f) {
+            return 0;
+        }
+        float du1 = v1.texCoord.getX() - v0.texCoord.getX();
+        float dv1 = v1.texCoord.getY() - v0.texCoord.getY();
+        float du2 = v2.texCoord.getX() - v0.texCoord.getX();
+        float dv2 = v2.texCoord.getY() - v0.texCoord.getY();
+        return textureSampler.mipLevel(
+                (du1 * e2y - du2 * e1y) / area,
+                (dv1 * e2y - dv2 * e1y) / area,
+                (du2 * e1x - du1 * e2x) / area,
+                (dv2 * e1x - dv1 * e2x) / area);
+    }
+
+    static long signedArea(float x0, float y0, float x1, float y1, float x2, float y2) {
+        // Same snapped edge function the rasterizer uses, so culling agrees with coverage.
+        return edgeFunction(toFixed(x0), toFixed(y0), toFixed(x1), toFixed(y1), toFixed(x2), toFixed(y2));
+    }
+
+    static boolean isDegenerate(Vertex v0, Vertex v1, Vertex v2) {
+        // The rasterizer's zero-area early-out, checked before binning; outside the guard band the area may overflow.
+        return isInsideGuardBand(v0) && isInsideGuardBand(v1) && isInsideGuardBand(v2)
+                && signedArea(v0.x, v0.y, v1.x, v1.y, v2.x, v2.y) == 0;
+    }
+
+    private static long edgeFunction(long ax, long ay, long bx, long by, long px, long py) {
         return (px - ax) * (by - ay) - (py - ay) * (bx - ax);
     }
 
-    private static int applyLighting(int argb, float intensity) {
-        int a = (argb >> 24) & 0xFF;
+    private static float conservativeNearestDepth(float z0, float z1, float z2) {
+        // Interpolated depths can undershoot the smallest vertex depth by a few ulps; stay below that.
+        float nearest = Math.min(z0, Math.min(z1, z2));
+        float largest = Math.max(Math.abs(z0), Math.max(Math.abs(z1), Math.abs(z2)));
+        return nearest - largest * 4e-6f - Float.MIN_VALUE;
+    }
+
+    private static boolean isTopLeft(long a, long b) {
+        // With a positive interior, a left edge has a > 0 and a top (horizontal) edge has the interior below it.
+        return a > 0 || (a == 0 && b > 0);
+    }
+
+    private static long toFixed(float coordinate) {
+        return Math.round((double) coordinate * SUBPIXEL_SCALE);
+    }
+
+    private static boolean isInsideGuardBand(Vertex vertex) {
+        return isInsideGuardBand(vertex.x, vertex.y);
+    }
+
+    static boolean isInsideGuardBand(float x, float y) {
+        // Beyond this range the fixed-point edge products could overflow a long; NaN is outside too.
+        return Math.abs(x) <= GUARD_BAND && Math.abs(y) <= GUARD_BAND;
+    }
+
+    static float lightIntensity(float diffuse) {
+        return clamp01(AMBIENT + DIFFUSE * diffuse);
+    }
+
+    static int applyLighting(int argb, float intensity) {
+        // Every shaded fragment goes through here, forward and deferred. The result is always opaque: the frame is
+        // presented as premultiplied ARGB, where a translucent texel would show too bright.
         int r = (argb >> 16) & 0xFF;
         int g = (argb >> 8) & 0xFF;
         int b = argb & 0xFF;
         r = clampChannel(Math.round(r * intensity));
         g = clampChannel(Math.round(g * intensity));
         b = clampChannel(Math.round(b * intensity));
-        return (a << 24) | (r << 16) | (g << 8) | b;
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
     }
 
     private static int clampChannel(int value) {
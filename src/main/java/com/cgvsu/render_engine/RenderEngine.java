@@ -3,8 +3,11 @@ package com.cgvsu.render_engine;
 import com.cgvsu.math.matrices.Matrix4;
 import com.cgvsu.math.vectors.Vector2f;
 import com.cgvsu.math.vectors.Vector3f;
-import com.cgvsu.math.vectors.Vector4f;
+import com.cgvsu.model.BoundingSphere;
+import com.cgvsu.model.EdgeList;
 import com.cgvsu.model.Model;
+import com.cgvsu.profiling.FrameEvent;
+import com.cgvsu.profiling.FramePresentEvent;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.image.PixelFormat;
@@ -15,6 +18,11 @@ import static com.cgvsu.render_engine.GraphicConveyor.*;
 public class RenderEngine {
     private static final int CLEAR_COLOR = 0xFF000000;
     private static final int DEFAULT_BASE_COLOR = 0xFFB0B0B0;
+    // Screen area a triangle of the chosen level may cover on average before a finer level is used.
+    static final double PIXELS_PER_TRIANGLE = 4.0;
+    // Used by the entry points that take no frame buffer: one per calling thread, kept between calls, so repeated
+    // frames reuse its storage (and its converted texture) instead of allocating a new buffer each time.
+    private static final ThreadLocal<FrameBuffer> SHARED_FRAME_BUFFER = ThreadLocal.withInitial(FrameBuffer::new);
 
     public static void render(
             final GraphicsContext graphicsContext,
@@ -54,62 +62,200 @@ public class RenderEngine {
             final int height,
             final Image texture,
             final RenderSettings settings) {
+        renderModels(graphicsContext, camera, meshes, width, height, texture, settings, sharedFrameBuffer());
+    }
+
+    public static void renderModels(
+            final GraphicsContext graphicsContext,
+            final Camera camera,
+            final List<Model> meshes,
+            final int width,
+            final int height,
+            final Image texture,
+            final RenderSettings settings,
+            final FrameBuffer frameBuffer) {
         // Ксюня: единая точка рендера с режимами (пункт 15).
         if (meshes == null || meshes.isEmpty()) {
             return;
         }
+        RenderSettings resolved = settings == null ? defaultSettings() : settings;
+        // The frame buffer keeps the converted texture, so drawing the same image again does not unpack it.
+        TextureSampler textureSampler = resolved.isUseTexture() && texture != null
+                ? frameBuffer.getImageTexture(texture, resolved.isMipmapping())
+                : null;
+        renderFrame(camera, meshes, width, height, textureSampler, resolved, frameBuffer);
+        present(graphicsContext, frameBuffer);
+    }
+
+    public static RenderStats renderFrame(
+            final Camera camera,
+            final List<Model> meshes,
+            final int width,
+            final int height,
+            final TextureSampler texture,
+            final RenderSettings settings,
+            final FrameBuffer frameBuffer) {
+        // Touches no scene graph node, so a render thread can call it with its own frame buffer and scene copy.
+        // Uses no JavaFX type either, so it also runs where the toolkit cannot start (see OffscreenRenderer).
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        long frameStart = System.nanoTime();
+        RenderStats stats = new RenderStats(width, height);
         Matrix4 viewMatrix = camera.getViewMatrix();
         Matrix4 projectionMatrix = camera.getProjectionMatrix();
 
-        int[] colorBuffer = new int[width * height];
-        float[] depthBuffer = new float[width * height];
-        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, CLEAR_COLOR);
+        // The caller keeps the frame buffer between frames, so steady-state frames allocate no pixel storage.
+        frameBuffer.resize(width, height);
+        frameBuffer.clear(CLEAR_COLOR);
+        int[] colorBuffer = frameBuffer.getColorBuffer();
+        float[] depthBuffer = frameBuffer.getDepthBuffer();
 
         // Ксюня: режимы — сетка/текстура/освещение и базовый цвет (пункт 15).
         RenderSettings resolved = settings == null ? defaultSettings() : settings;
-        TextureSampler textureSampler = (resolved.isUseTexture() && texture != null)
-                ? new ImageTextureSampler(texture)
-                : null;
+        TextureSampler textureSampler = resolved.isUseTexture() ? texture : null;
         Vector3f cameraPos = camera.getPosition();
         // Ксюня: источник света привязан к активной камере (пункт 14).
         Vector3f lightPos = resolved.isUseLighting()
                 ? new Vector3f(cameraPos.getX(), cameraPos.getY(), cameraPos.getZ())
                 : null;
         int baseColor = resolved.getBaseColor();
+        // Deferred mode rasterizes surface attributes only; every visible pixel is lit once afterwards.
+        GBuffer gBuffer = resolved.isDeferredShading() ? frameBuffer.getGBuffer() : null;
+        // Parallel mode only records triangles here; tiles are rasterized after all meshes are processed.
+        TileRasterizer tileRasterizer = resolved.isParallelRasterization()
+                ? new TileRasterizer(
+                        width, height, colorBuffer, depthBuffer, frameBuffer.getCoarseDepth(), gBuffer, baseColor,
+                        textureSampler, lightPos, resolved.isDepthPrePass(),
+                        resolved.isVectorRasterization())
+                : null;
+        // The tile rasterizer runs both passes per tile itself; the serial path walks the meshes twice.
+        DepthPass[] passes;
+        if (gBuffer != null) {
+            passes = new DepthPass[] {DepthPass.GEOMETRY};
+        } else if (tileRasterizer == null && resolved.isDepthPrePass()) {
+            passes = new DepthPass[] {DepthPass.DEPTH_ONLY, DepthPass.SHADE_EQUAL};
+        } else {
+            passes = new DepthPass[] {DepthPass.SINGLE};
+        }
 
-        for (Model mesh : meshes) {
-            Matrix4 modelMatrix = rotateScaleTranslate(new Vector3f(), new Vector3f(), new Vector3f(1, 1, 1));
-            Matrix4 modelViewProjectionMatrix = projectionMatrix.mult(viewMatrix).mult(modelMatrix);
+        // Rasterizer vertices come from the pool; the tile rasterizer holds on to them until the end of the frame.
+        VertexPool vertexPool = frameBuffer.getVertexPool();
+        vertexPool.reset();
 
-            renderSingleModel(
-                    mesh,
-                    modelMatrix,
-                    modelViewProjectionMatrix,
-                    width,
-                    height,
-                    colorBuffer,
-                    depthBuffer,
-                    textureSampler,
-                    lightPos,
-                    baseColor,
-                    resolved.isDrawWireframe());
+        for (DepthPass pass : passes) {
+            for (int meshIndex = 0; meshIndex < meshes.size(); meshIndex++) {
+                Model mesh = meshes.get(meshIndex);
+                Matrix4 modelMatrix = rotateScaleTranslate(new Vector3f(), new Vector3f(), new Vector3f(1, 1, 1));
+                Matrix4 modelViewProjectionMatrix = projectionMatrix.mult(viewMatrix).mult(modelMatrix);
+                // Skip models whose cached bounds lie fully outside the view volume before any vertex work.
+                boolean culled = !new Frustum(modelViewProjectionMatrix).intersects(mesh.getBoundingSphere());
+                if (pass != DepthPass.SHADE_EQUAL) {
+                    // The shading pass of the serial pre-pass walks the same meshes again; count them once.
+                    stats.countModel(culled);
+                }
+                if (culled) {
+                    continue;
+                }
+                Model drawn = resolved.isLevelOfDetail()
+                        ? selectLevelOfDetail(mesh, cameraPos, camera.getFov(), height)
+                        : mesh;
+
+                renderSingleModel(
+                        drawn,
+                        modelMatrix,
+                        modelViewProjectionMatrix,
+                        frameBuffer.getVertexCache(meshIndex),
+                        vertexPool,
+                        frameBuffer.getCoarseDepth(),
+                        frameBuffer.getDrawnRegion(),
+                        gBuffer,
+                        width,
+                        height,
+                        colorBuffer,
+                        depthBuffer,
+                        textureSampler,
+                        lightPos,
+                        baseColor,
+                        resolved.isDrawWireframe(),
+                        resolved.getCullMode(),
+                        pass,
+                        resolved.isVectorRasterization(),
+                        tileRasterizer,
+                        frameBuffer.getFragmentKernels(),
+                        stats);
+            }
+        }
+        if (tileRasterizer != null) {
+            tileRasterizer.rasterize();
+            tileRasterizer.addPixelCounts(stats.getPixelCounts());
+        }
+        long lightingStart = System.nanoTime();
+        if (gBuffer != null) {
+            new DeferredLighting(
+                    gBuffer, depthBuffer, colorBuffer, projectionMatrix.mult(viewMatrix),
+                    textureSampler, lightPos, baseColor).shade();
         }
+        long end = System.nanoTime();
+        stats.setLightingNanos(end - lightingStart);
+        stats.setRasterNanos(lightingStart - frameStart - stats.getTransformNanos());
+        stats.setFrameNanos(end - frameStart);
+        frameBuffer.setStats(stats);
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.models = stats.getModelsSubmitted();
+            event.modelsCulled = stats.getModelsCulled();
+            event.triangles = stats.getTrianglesSubmitted();
+            event.trianglesCulled = stats.getTrianglesCulled();
+            event.pixelsWritten = stats.getPixelsWritten();
+            event.transform = stats.getTransformNanos();
+            event.raster = stats.getRasterNanos();
+            event.lighting = stats.getLightingNanos();
+            event.colorBufferBytes = (long) width * height * Integer.BYTES;
+            event.commit();
+        }
+        return stats;
+    }
 
+    public static void present(final GraphicsContext graphicsContext, final FrameBuffer frameBuffer) {
+        FramePresentEvent event = new FramePresentEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int width = frameBuffer.getWidth();
         graphicsContext.getPixelWriter().setPixels(
                 0,
                 0,
                 width,
-                height,
+                frameBuffer.getHeight(),
                 PixelFormat.getIntArgbInstance(),
-                colorBuffer,
+                frameBuffer.getColorBuffer(),
                 0,
                 width);
+        frameBuffer.recordPresent(System.nanoTime() - start);
+        commitPresent(event, frameBuffer);
+    }
+
+    static FrameBuffer sharedFrameBuffer() {
+        return SHARED_FRAME_BUFFER.get();
+    }
+
+    static void commitPresent(FramePresentEvent event, FrameBuffer frameBuffer) {
+        if (event.shouldCommit()) {
+            event.width = frameBuffer.getWidth();
+            event.height = frameBuffer.getHeight();
+            event.commit();
+        }
     }
 
     private static void renderSingleModel(
             Model mesh,
             Matrix4 modelMatrix,
             Matrix4 modelViewProjectionMatrix,
+            VertexCache vertexCache,
+            VertexPool vertexPool,
+            CoarseDepthBuffer coarseDepth,
+            DirtyRegion dirtyRegion,
+            GBuffer gBuffer,
             int width,
             int height,
             int[] colorBuffer,
@@ -117,73 +263,335 @@ public class RenderEngine {
             TextureSampler textureSampler,
             Vector3f lightPos,
             int baseColor,
-            boolean drawWireframe) {
+            boolean drawWireframe,
+            CullMode cullMode,
+            DepthPass pass,
+            boolean vectorized,
+            TileRasterizer tileRasterizer,
+            FragmentKernel.Cache kernels,
+            RenderStats stats) {
         // Ксюня: треугольники + Z-буфер + опциональная сетка (пункты 13 и 15).
+        long transformStart = System.nanoTime();
+        // The shading pass after a depth pre-pass finds the mesh already transformed by the pre-pass.
+        if (pass != DepthPass.SHADE_EQUAL) {
+            vertexCache.transformVertices(mesh.vertices, modelViewProjectionMatrix, width, height);
+        }
+        boolean depthOnly = pass == DepthPass.DEPTH_ONLY;
+        // Attributes the current settings never read are not fetched, so the rasterizer picks a leaner kernel.
+        boolean needsTexture = !depthOnly && textureSampler != null;
+        boolean needsNormals = !depthOnly && lightPos != null;
+        if (needsNormals) {
+            vertexCache.transformNormals(mesh.normals, modelMatrix);
+        }
+        stats.addTransformNanos(System.nanoTime() - transformStart);
+        long[] pixelCounts = stats.getPixelCounts();
+        long submitted = 0;
+        long culled = 0;
+        long degenerate = 0;
+        float[] screenX = vertexCache.getScreenX();
+        float[] screenY = vertexCache.getScreenY();
+        float[] depth = vertexCache.getDepth();
+        float[] normalX = vertexCache.getNormalX();
+        float[] normalY = vertexCache.getNormalY();
+        float[] normalZ = vertexCache.getNormalZ();
+        int[] outcodes = vertexCache.getOutcodes();
+        Rasterizer.Vertex[] vertices = new Rasterizer.Vertex[3];
+        TriangleClipper clipper = null;
+        // The wireframe is drawn from the model's unique edges after its triangles, so a shared edge is drawn once.
+        // Triangles that survive culling mark their edges; edges of culled triangles only stay hidden.
+        EdgeList edges = drawWireframe && !depthOnly ? mesh.getEdgeList() : null;
+        boolean[] edgeMarks = edges != null ? vertexCache.clearedEdgeMarks(edges.getEdgeCount()) : null;
+        int[] polygonEdges = edges != null ? edges.getPolygonEdges() : null;
+
         final int nPolygons = mesh.polygons.size();
         for (int polygonInd = 0; polygonInd < nPolygons; ++polygonInd) {
             List<Integer> vertexIndices = mesh.polygons.get(polygonInd).getVertexIndices();
             if (vertexIndices.size() != 3) {
                 continue;
             }
+            submitted++;
+            int i0 = vertexIndices.get(0);
+            int i1 = vertexIndices.get(1);
+            int i2 = vertexIndices.get(2);
+            if ((outcodes[i0] & outcodes[i1] & outcodes[i2]) != 0) {
+                // All three corners lie outside the same clip plane.
+                culled++;
+                continue;
+            }
+            boolean crossesNear = ((outcodes[i0] | outcodes[i1] | outcodes[i2]) & TriangleClipper.OUTSIDE_NEAR) != 0;
+            // A corner just in front of the camera can project far beyond the guard band the rasterizer accepts.
+            boolean needsClipping = crossesNear
+                    || !Rasterizer.isInsideGuardBand(screenX[i0], screenY[i0])
+                    || !Rasterizer.isInsideGuardBand(screenX[i1], screenY[i1])
+                    || !Rasterizer.isInsideGuardBand(screenX[i2], screenY[i2]);
+            if (cullMode != CullMode.NONE && !needsClipping) {
+                // Reject by screen winding before any per-vertex attribute setup.
+                long area = Rasterizer.signedArea(
+                        screenX[i0], screenY[i0], screenX[i1], screenY[i1], screenX[i2], screenY[i2]);
+                if (area == 0) {
+                    // No area means no winding: degenerate, whichever side the cull mode drops.
+                    degenerate++;
+                    continue;
+                }
+                if (cullMode.culls(area)) {
+                    culled++;
+                    continue;
+                }
+            }
+            if (edgeMarks != null) {
+                edgeMarks[polygonEdges[polygonInd * 3]] = true;
+                edgeMarks[polygonEdges[polygonInd * 3 + 1]] = true;
+                edgeMarks[polygonEdges[polygonInd * 3 + 2]] = true;
+            }
 
             List<Integer> textureIndices = mesh.polygons.get(polygonInd).getTextureVertexIndices();
             List<Integer> normalIndices = mesh.polygons.get(polygonInd).getNormalIndices();
-            boolean hasTexture = textureIndices.size() == 3;
-            boolean hasNormals = normalIndices.size() == 3;
+            boolean hasTexture = needsTexture && textureIndices.size() == 3;
+            boolean hasNormals = needsNormals && normalIndices.size() == 3;
 
-            Rasterizer.Vertex[] vertices = new Rasterizer.Vertex[3];
-            for (int i = 0; i < 3; i++) {
-                int vertexIndex = vertexIndices.get(i);
-                Vector3f vertex = mesh.vertices.get(vertexIndex);
-                Vector3f projected = transformToNdc(modelViewProjectionMatrix, vertex);
-                Vector2f resultPoint = vertexToPoint(projected, width, height);
-
-                Vector2f texCoord = null;
-                if (hasTexture) {
-                    int textureIndex = textureIndices.get(i);
-                    texCoord = mesh.textureVertices.get(textureIndex);
+            if (needsClipping) {
+                // Corners behind the camera have meaningless screen positions; clip before the divide.
+                if (clipper == null) {
+                    clipper = new TriangleClipper();
+                }
+                for (int i = 0; i < 3; i++) {
+                    int vertexIndex = vertexIndices.get(i);
+                    clipper.setCorner(
+                            i,
+                            vertexCache.getClipX()[vertexIndex],
+                            vertexCache.getClipY()[vertexIndex],
+                            vertexCache.getClipZ()[vertexIndex],
+                            vertexCache.getClipW()[vertexIndex],
+                            mesh.vertices.get(vertexIndex),
+                            hasTexture ? mesh.textureVertices.get(textureIndices.get(i)) : null);
+                    if (hasNormals) {
+                        int normalIndex = normalIndices.get(i);
+                        clipper.setCornerNormal(i, normalX[normalIndex], normalY[normalIndex], normalZ[normalIndex]);
+                    }
                 }
+                int cornerCount = clipper.clip(width, height);
+                Rasterizer.Vertex[] corners = clipper.getCorners();
+                // The triangle is counted once: drawn if any fan piece is, otherwise culled or degenerate. Clipping
+                // keeps the triangle's plane, so every piece with an area has the same winding.
+                boolean drawn = false;
+                boolean piecesCulled = cornerCount == 0;
+                for (int corner = 2; corner < cornerCount; corner++) {
+                    Rasterizer.Vertex v0 = corners[0];
+                    Rasterizer.Vertex v1 = corners[corner - 1];
+                    Rasterizer.Vertex v2 = corners[corner];
+                    long area = Rasterizer.signedArea(v0.x, v0.y, v1.x, v1.y, v2.x, v2.y);
+                    if (area != 0 && cullMode.culls(area)) {
+                        piecesCulled = true;
+                        continue;
+                    }
+                    drawn |= submitTriangle(
+                            v0, v1, v2, coarseDepth, dirtyRegion, gBuffer, width, height, colorBuffer, depthBuffer,
+                            textureSampler, lightPos, baseColor, pass, vectorized, tileRasterizer, kernels,
+                            pixelCounts);
+                }
+                if (!drawn) {
+                    if (piecesCulled) {
+                        culled++;
+                    } else {
+                        degenerate++;
+                    }
+                }
+                continue;
+            }
 
-                Vector3f normal = null;
+            int poolMark = vertexPool.mark();
+            for (int i = 0; i < 3; i++) {
+                int vertexIndex = vertexIndices.get(i);
+                Vector2f texCoord = hasTexture ? mesh.textureVertices.get(textureIndices.get(i)) : null;
                 if (hasNormals) {
                     int normalIndex = normalIndices.get(i);
-                    Vector3f normalLocal = mesh.normals.get(normalIndex);
-                    Vector4f normalWorld = modelMatrix.mult(new Vector4f(
-                            normalLocal.getX(),
-                            normalLocal.getY(),
-                            normalLocal.getZ(),
-                            0.0f));
-                    normal = new Vector3f(normalWorld.getX(), normalWorld.getY(), normalWorld.getZ()).normalize();
+                    vertices[i] = vertexPool.next(
+                            screenX[vertexIndex], screenY[vertexIndex], depth[vertexIndex],
+                            mesh.vertices.get(vertexIndex),
+                            normalX[normalIndex], normalY[normalIndex], normalZ[normalIndex],
+                            texCoord);
+                } else {
+                    vertices[i] = vertexPool.next(
+                            screenX[vertexIndex], screenY[vertexIndex], depth[vertexIndex],
+                            mesh.vertices.get(vertexIndex), texCoord);
                 }
+            }
+            if (!submitTriangle(
+                    vertices[0], vertices[1], vertices[2], coarseDepth, dirtyRegion, gBuffer, width, height,
+                    colorBuffer, depthBuffer, textureSampler, lightPos, baseColor, pass, vectorized,
+                    tileRasterizer, kernels, pixelCounts)) {
+                degenerate++;
+            }
+            if (tileRasterizer == null) {
+                // Drawn already, so the serial path reuses the three vertices for the next triangle.
+                vertexPool.release(poolMark);
+            }
+        }
+        if (pass != DepthPass.SHADE_EQUAL) {
+            stats.countTriangles(submitted, culled, degenerate);
+        }
+
+        if (edges != null) {
+            drawEdges(edges, edgeMarks, vertexCache, vertexPool, dirtyRegion, gBuffer, width, height, colorBuffer,
+                    depthBuffer, tileRasterizer);
+        }
+    }
 
-                vertices[i] = new Rasterizer.Vertex(
-                        resultPoint.getX(),
-                        resultPoint.getY(),
-                        projected.getZ(),
-                        vertex,
-                        normal,
-                        texCoord);
+    private static void drawEdges(
+            EdgeList edges,
+            boolean[] edgeMarks,
+            VertexCache vertexCache,
+            VertexPool vertexPool,
+            DirtyRegion dirtyRegion,
+            GBuffer gBuffer,
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            TileRasterizer tileRasterizer) {
+        // Ксюня: поверх заливаемой модели рисуем каркас (пункт 15).
+        float[] screenX = vertexCache.getScreenX();
+        float[] screenY = vertexCache.getScreenY();
+        float[] depth = vertexCache.getDepth();
+        int[] outcodes = vertexCache.getOutcodes();
+        int[] edgeVertices = edges.getEdgeVertices();
+        final int edgeCount = edges.getEdgeCount();
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (!edgeMarks[edge]) {
+                continue;
+            }
+            int a = edgeVertices[edge * 2];
+            int b = edgeVertices[edge * 2 + 1];
+            if ((outcodes[a] & outcodes[b]) != 0) {
+                continue;
             }
+            float x0 = screenX[a];
+            float y0 = screenY[a];
+            float z0 = depth[a];
+            float x1 = screenX[b];
+            float y1 = screenY[b];
+            float z1 = depth[b];
+            if (((outcodes[a] | outcodes[b]) & TriangleClipper.OUTSIDE_NEAR) != 0) {
+                // One end is behind the camera: replace it by the point where the edge crosses the near plane.
+                int front = (outcodes[a] & TriangleClipper.OUTSIDE_NEAR) == 0 ? a : b;
+                int back = front == a ? b : a;
+                Rasterizer.Vertex crossing = TriangleClipper.clipLineNear(
+                        vertexCache.getClipX()[front], vertexCache.getClipY()[front],
+                        vertexCache.getClipZ()[front], vertexCache.getClipW()[front],
+                        vertexCache.getClipX()[back], vertexCache.getClipY()[back],
+                        vertexCache.getClipZ()[back], vertexCache.getClipW()[back],
+                        width, height);
+                x0 = screenX[front];
+                y0 = screenY[front];
+                z0 = depth[front];
+                x1 = crossing.x;
+                y1 = crossing.y;
+                z1 = crossing.z;
+            }
+            dirtyRegion.include(
+                    (int) Math.floor(Math.min(x0, x1)),
+                    (int) Math.floor(Math.min(y0, y1)),
+                    (int) Math.ceil(Math.max(x0, x1)),
+                    (int) Math.ceil(Math.max(y0, y1)),
+                    width,
+                    height);
+            if (tileRasterizer != null) {
+                tileRasterizer.addLine(
+                        vertexPool.next(x0, y0, z0, null, null), vertexPool.next(x1, y1, z1, null, null));
+                continue;
+            }
+            Rasterizer.rasterizeLine(
+                    x0, y0, z0, x1, y1, z1, width, height, colorBuffer, depthBuffer, gBuffer,
+                    Rasterizer.WIREFRAME_COLOR, 0, 0, width - 1, height - 1);
+        }
+    }
 
-            Rasterizer.rasterizeTriangle(
-                    vertices[0],
-                    vertices[1],
-                    vertices[2],
+    private static boolean submitTriangle(
+            Rasterizer.Vertex v0,
+            Rasterizer.Vertex v1,
+            Rasterizer.Vertex v2,
+            CoarseDepthBuffer coarseDepth,
+            DirtyRegion dirtyRegion,
+            GBuffer gBuffer,
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            TextureSampler textureSampler,
+            Vector3f lightPos,
+            int baseColor,
+            DepthPass pass,
+            boolean vectorized,
+            TileRasterizer tileRasterizer,
+            FragmentKernel.Cache kernels,
+            long[] pixelCounts) {
+        // Returns false for a triangle with no area on the sub-pixel grid: it covers no pixel, so it is not binned.
+        if (Rasterizer.isDegenerate(v0, v1, v2)) {
+            return false;
+        }
+        if (pass != DepthPass.DEPTH_ONLY) {
+            // Same bounds the tile binning uses, so the region covers every pixel this triangle can write.
+            dirtyRegion.include(
+                    (int) Math.floor(Math.min(v0.x, Math.min(v1.x, v2.x))),
+                    (int) Math.floor(Math.min(v0.y, Math.min(v1.y, v2.y))),
+                    (int) Math.ceil(Math.max(v0.x, Math.max(v1.x, v2.x))),
+                    (int) Math.ceil(Math.max(v0.y, Math.max(v1.y, v2.y))),
                     width,
-                    height,
-                    colorBuffer,
-                    depthBuffer,
-                    baseColor,
-                    textureSampler,
-                    lightPos);
-
-            if (drawWireframe) {
-                // Ксюня: поверх заливаемой модели рисуем каркас (пункт 15).
-                Rasterizer.rasterizeLine(vertices[0], vertices[1], width, height, colorBuffer, depthBuffer, 0xFFFFFFFF);
-                Rasterizer.rasterizeLine(vertices[1], vertices[2], width, height, colorBuffer, depthBuffer, 0xFFFFFFFF);
-                Rasterizer.rasterizeLine(vertices[2], vertices[0], width, height, colorBuffer, depthBuffer, 0xFFFFFFFF);
+                    height);
+        }
+        if (tileRasterizer != null) {
+            tileRasterizer.addTriangle(v0, v1, v2);
+            return true;
+        }
+
+        Rasterizer.rasterizeTriangle(
+                v0,
+                v1,
+                v2,
+                width,
+                height,
+                colorBuffer,
+                depthBuffer,
+                baseColor,
+                textureSampler,
+                lightPos,
+                coarseDepth,
+                gBuffer,
+                pass,
+                vectorized,
+                0,
+                0,
+                width - 1,
+                height - 1,
+                pixelCounts,
+                kernels);
+        return true;
+    }
+
+    static Model selectLevelOfDetail(Model mesh, Vector3f cameraPos, float fov, int height) {
+        // The coarsest level that still has enough triangles for the model's projected bounding-sphere area.
+        List<Model> levels = mesh.getLevelsOfDetail();
+        if (levels.isEmpty()) {
+            return mesh;
+        }
+        BoundingSphere sphere = mesh.getBoundingSphere();
+        double dx = sphere.getCenterX() - cameraPos.getX();
+        double dy = sphere.getCenterY() - cameraPos.getY();
+        double dz = sphere.getCenterZ() - cameraPos.getZ();
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (distance <= sphere.getRadius()) {
+            return mesh;
+        }
+        double projectedRadius = sphere.getRadius() / (distance * Math.tan(fov * 0.5)) * height * 0.5;
+        double neededTriangles = Math.PI * projectedRadius * projectedRadius / PIXELS_PER_TRIANGLE;
+        Model selected = mesh;
+        for (Model level : levels) {
+            if (level.polygons.size() < neededTriangles) {
+                break;
             }
+            selected = level;
         }
+        return selected;
     }
 
     private static RenderSettings defaultSettings() {
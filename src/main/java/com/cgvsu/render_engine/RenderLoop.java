@@ -0,0 +1,146 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
+
+public final class RenderLoop implements AutoCloseable {
+    private static final long REFINE_DELAY_NANOS = 150_000_000L;
+    // Frame buffers rotate between the threads: the render thread draws into its back buffer, the UI thread
+    // presents its front buffer, and the latest completed frame waits in between, so neither side ever blocks.
+    // The previously presented buffer is held back for one more frame: a zero-copy presenter may still be
+    // uploading it while the UI thread already moves on.
+    private final AtomicReference<SceneSnapshot> pending = new AtomicReference<>();
+    private final AtomicReference<Slot> ready = new AtomicReference<>(new Slot(new FrameBuffer(), false));
+    private final Thread thread;
+    private final Consumer<Throwable> errorHandler;
+    private volatile boolean running = true;
+    // Owned by the render thread.
+    private final ResolutionScaler scaler = new ResolutionScaler();
+    private SceneSnapshot previous;
+    private SceneSnapshot unrefined;
+
+    private FrameBuffer back = new FrameBuffer();
+    private FrameBuffer front = new FrameBuffer();
+    private FrameBuffer retired = new FrameBuffer();
+
+    public RenderLoop() {
+        this(null);
+    }
+
+    public RenderLoop(Consumer<Throwable> errorHandler) {
+        // The handler is called on the render thread for every frame that fails; null reports through the
+        // thread's uncaught exception handler. The loop keeps serving later snapshots either way.
+        this.errorHandler = errorHandler;
+        thread = new Thread(this::run, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void submit(SceneSnapshot snapshot) {
+        // Latest wins: a snapshot the render thread has not picked up yet is simply replaced.
+        pending.set(snapshot);
+        LockSupport.unpark(thread);
+    }
+
+    public FrameBuffer pollFrame() {
+        // Returns the newest completed frame once, or null if nothing was finished since the last call.
+        if (!ready.get().fresh) {
+            return null;
+        }
+        Slot taken = ready.getAndSet(new Slot(retired, false));
+        retired = front;
+        front = taken.buffer;
+        return front;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (running) {
+            SceneSnapshot snapshot = pending.getAndSet(null);
+            if (snapshot == null && unrefined != null) {
+                // Snapshots are only sent on change, so a reduced frame is redrawn at full size once input settles.
+                LockSupport.parkNanos(this, REFINE_DELAY_NANOS);
+                snapshot = pending.getAndSet(null);
+                if (snapshot == null && running) {
+                    snapshot = unrefined;
+                }
+                unrefined = null;
+            }
+            if (snapshot == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            RenderSettings settings = snapshot.getSettings();
+            if (!settings.isAdaptiveResolution() || previous == null
+                    || previous.getWidth() != snapshot.getWidth() || previous.getHeight() != snapshot.getHeight()) {
+                scaler.reset();
+            }
+            // Adaptive mode trades resolution for frame time only while the view moves; a still view gets full size.
+            boolean scaled = settings.isAdaptiveResolution()
+                    && previous != null && !sameView(previous.getCamera(), snapshot.getCamera());
+            float scale = scaled ? scaler.getScale() : 1.0f;
+            previous = snapshot;
+            long start = System.nanoTime();
+            try {
+                RenderEngine.renderFrame(
+                        snapshot.getCamera(),
+                        snapshot.getModels(),
+                        ResolutionScaler.scaledSize(snapshot.getWidth(), scale),
+                        ResolutionScaler.scaledSize(snapshot.getHeight(), scale),
+                        snapshot.getTexture(),
+                        settings,
+                        back);
+            } catch (Throwable e) {
+                // Errors too: an OutOfMemoryError on a huge model would otherwise end the thread and freeze the view.
+                reportError(e);
+                continue;
+            }
+            if (scaled) {
+                scaler.update(scale, (System.nanoTime() - start) / 1_000_000.0, settings.getFrameBudgetMillis());
+            }
+            unrefined = scaled ? snapshot : null;
+            back = ready.getAndSet(new Slot(back, true)).buffer;
+        }
+    }
+
+    private void reportError(Throwable error) {
+        if (errorHandler == null) {
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+            return;
+        }
+        try {
+            errorHandler.accept(error);
+        } catch (Throwable ignored) {
+            // A failing handler must not end the loop either.
+        }
+    }
+
+    private static boolean sameView(Camera a, Camera b) {
+        return samePoint(a.getPosition(), b.getPosition())
+                && samePoint(a.getTarget(), b.getTarget())
+                && a.getFov() == b.getFov()
+                && a.getAspectRatio() == b.getAspectRatio();
+    }
+
+    private static boolean samePoint(Vector3f a, Vector3f b) {
+        return a.getX() == b.getX() && a.getY() == b.getY() && a.getZ() == b.getZ();
+    }
+
+    private static final class Slot {
+        private final FrameBuffer buffer;
+        private final boolean fresh;
+
+        private Slot(FrameBuffer buffer, boolean fresh) {
+            this.buffer = buffer;
+            this.fresh = fresh;
+        }
+    }
+}
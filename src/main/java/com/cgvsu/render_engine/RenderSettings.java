@@ -6,6 +6,16 @@ public class RenderSettings {
     private boolean useTexture;
     private boolean useLighting;
     private int baseColor;
+    private boolean parallelRasterization;
+    private CullMode cullMode = CullMode.NONE;
+    private boolean depthPrePass;
+    private boolean deferredShading;
+    private boolean vectorRasterization;
+    private boolean adaptiveResolution;
+    private boolean levelOfDetail;
+    private boolean mipmapping;
+    private float frameBudgetMillis = 16.0f;
+    private long version;
 
     public RenderSettings(boolean drawWireframe, boolean useTexture, boolean useLighting, int baseColor) {
         this.drawWireframe = drawWireframe;
@@ -14,12 +24,26 @@ public class RenderSettings {
         this.baseColor = baseColor;
     }
 
+    public RenderSettings(RenderSettings other) {
+        this(other.drawWireframe, other.useTexture, other.useLighting, other.baseColor);
+        this.parallelRasterization = other.parallelRasterization;
+        this.cullMode = other.cullMode;
+        this.depthPrePass = other.depthPrePass;
+        this.deferredShading = other.deferredShading;
+        this.vectorRasterization = other.vectorRasterization;
+        this.adaptiveResolution = other.adaptiveResolution;
+        this.levelOfDetail = other.levelOfDetail;
+        this.mipmapping = other.mipmapping;
+        this.frameBudgetMillis = other.frameBudgetMillis;
+    }
+
     public boolean isDrawWireframe() {
         return drawWireframe;
     }
 
     public void setDrawWireframe(boolean drawWireframe) {
         this.drawWireframe = drawWireframe;
+        version++;
     }
 
     public boolean isUseTexture() {
@@ -28,6 +52,7 @@ public class RenderSettings {
 
     public void setUseTexture(boolean useTexture) {
         this.useTexture = useTexture;
+        version++;
     }
 
     public boolean isUseLighting() {
@@ -36,6 +61,7 @@ public class RenderSettings {
 
     public void setUseLighting(boolean useLighting) {
         this.useLighting = useLighting;
+        version++;
     }
 
     public int getBaseColor() {
@@ -44,5 +70,98 @@ public class RenderSettings {
 
     public void setBaseColor(int baseColor) {
         this.baseColor = baseColor;
+        version++;
+    }
+
+    public boolean isParallelRasterization() {
+        return parallelRasterization;
+    }
+
+    public void setParallelRasterization(boolean parallelRasterization) {
+        this.parallelRasterization = parallelRasterization;
+        version++;
+    }
+
+    public CullMode getCullMode() {
+        return cullMode;
+    }
+
+    public void setCullMode(CullMode cullMode) {
+        this.cullMode = cullMode == null ? CullMode.NONE : cullMode;
+        version++;
+    }
+
+    public boolean isDepthPrePass() {
+        return depthPrePass;
+    }
+
+    public void setDepthPrePass(boolean depthPrePass) {
+        this.depthPrePass = depthPrePass;
+        version++;
+    }
+
+    public boolean isDeferredShading() {
+        return deferredShading;
+    }
+
+    public void setDeferredShading(boolean deferredShading) {
+        this.deferredShading = deferredShading;
+        version++;
+    }
+
+    public boolean isVectorRasterization() {
+        return vectorRasterization;
+    }
+
+    public void setVectorRasterization(boolean vectorRasterization) {
+        // Without the jdk.incubator.vector module the rasterizer silently keeps the scalar kernel.
+        this.vectorRasterization = vectorRasterization;
+        version++;
+    }
+
+    public boolean isAdaptiveResolution() {
+        return adaptiveResolution;
+    }
+
+    public void setAdaptiveResolution(boolean adaptiveResolution) {
+        this.adaptiveResolution = adaptiveResolution;
+        version++;
+    }
+
+    public boolean isLevelOfDetail() {
+        return levelOfDetail;
+    }
+
+    public void setLevelOfDetail(boolean levelOfDetail) {
+        // Models without built levels are always drawn in full.
+        this.levelOfDetail = levelOfDetail;
+        version++;
+    }
+
+    public boolean isMipmapping() {
+        return mipmapping;
+    }
+
+    public void setMipmapping(boolean mipmapping) {
+        // Textures are then sampled trilinearly from a mip pyramid, in the deferred path too.
+        this.mipmapping = mipmapping;
+        version++;
+    }
+
+    public float getFrameBudgetMillis() {
+        return frameBudgetMillis;
+    }
+
+    public void setFrameBudgetMillis(float frameBudgetMillis) {
+        if (!(frameBudgetMillis > 0.0f)) {
+            throw new IllegalArgumentException("Frame budget must be positive: " + frameBudgetMillis);
+        }
+        this.frameBudgetMillis = frameBudgetMillis;
+        version++;
+    }
+
+    public long getVersion() {
+        // Bumped by every setter; a copy starts its own count.
+        return version;
     }
 }
@@ -0,0 +1,137 @@
+package com.cgvsu.render_engine;
+
+public final class RenderStats {
+    // Counters of one frame. The render thread fills them while drawing; only the present time is added later,
+    // by whoever shows the frame, and is reported apart from the frame time. A new object is made per frame, so a
+    // presented frame keeps its own numbers.
+    static final int PIXELS_TESTED = 0;
+    static final int PIXELS_WRITTEN = 1;
+
+    private final int width;
+    private final int height;
+    private int modelsSubmitted;
+    private int modelsCulled;
+    private long trianglesSubmitted;
+    private long trianglesCulled;
+    private long trianglesDegenerate;
+    // Indexed by PIXELS_TESTED and PIXELS_WRITTEN, so the rasterizer adds to it without knowing this class.
+    private final long[] pixelCounts = new long[2];
+    private long transformNanos;
+    private long rasterNanos;
+    private long lightingNanos;
+    private long frameNanos;
+    private long presentNanos;
+
+    RenderStats(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getModelsSubmitted() {
+        return modelsSubmitted;
+    }
+
+    public int getModelsCulled() {
+        return modelsCulled;
+    }
+
+    public long getTrianglesSubmitted() {
+        // Triangles of the models that passed the frustum test.
+        return trianglesSubmitted;
+    }
+
+    public long getTrianglesCulled() {
+        // Rejected whole before rasterization: outside one clip plane, or facing away with culling on.
+        return trianglesCulled;
+    }
+
+    public long getTrianglesDegenerate() {
+        // Zero area after snapping to the sub-pixel grid; near-clipped pieces are counted separately.
+        return trianglesDegenerate;
+    }
+
+    public long getPixelsTested() {
+        // Pixels of triangle bounding boxes scanned for coverage, after coarse depth rejection.
+        return pixelCounts[PIXELS_TESTED];
+    }
+
+    public long getPixelsWritten() {
+        // Fragments that passed the depth test, in every pass.
+        return pixelCounts[PIXELS_WRITTEN];
+    }
+
+    public double getOverdraw() {
+        // Written fragments per screen pixel.
+        long pixels = (long) width * height;
+        return pixels == 0 ? 0.0 : (double) pixelCounts[PIXELS_WRITTEN] / pixels;
+    }
+
+    public long getTransformNanos() {
+        return transformNanos;
+    }
+
+    public long getRasterNanos() {
+        // Everything else in drawing the frame: clear, triangle setup, binning and rasterization.
+        return rasterNanos;
+    }
+
+    public long getLightingNanos() {
+        // The deferred lighting pass; zero in forward shading, where lighting is part of rasterization.
+        return lightingNanos;
+    }
+
+    public long getPresentNanos() {
+        // Measured later on the thread that shows the frame, so it is not part of the frame time.
+        return presentNanos;
+    }
+
+    public long getFrameNanos() {
+        // Render-thread time from the start of the frame to the end of lighting: the sum of the three phases.
+        return frameNanos;
+    }
+
+    long[] getPixelCounts() {
+        return pixelCounts;
+    }
+
+    void countModel(boolean culled) {
+        modelsSubmitted++;
+        if (culled) {
+            modelsCulled++;
+        }
+    }
+
+    void countTriangles(long submitted, long culled, long degenerate) {
+        trianglesSubmitted += submitted;
+        trianglesCulled += culled;
+        trianglesDegenerate += degenerate;
+    }
+
+    void addTransformNanos(long nanos) {
+        transformNanos += nanos;
+    }
+
+    void setRasterNanos(long nanos) {
+        rasterNanos = nanos;
+    }
+
+    void setLightingNanos(long nanos) {
+        lightingNanos = nanos;
+    }
+
+    void setFrameNanos(long nanos) {
+        frameNanos = nanos;
+    }
+
+    void setPresentNanos(long nanos) {
+        presentNanos = nanos;
+    }
+}
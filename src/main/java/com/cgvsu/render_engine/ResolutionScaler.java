@@ -0,0 +1,32 @@
+package com.cgvsu.render_engine;
+
+public final class ResolutionScaler {
+    // Scale levels are quantized, so the frame buffer is reallocated only when the level really changes.
+    static final float MIN_SCALE = 0.25f;
+    private static final int LEVELS_PER_UNIT = 8;
+    // Fraction of the error corrected per frame; damps oscillation from noisy frame times.
+    private static final double GAIN = 0.5;
+
+    private double desiredScale = 1.0;
+
+    public float getScale() {
+        return (float) Math.round(desiredScale * LEVELS_PER_UNIT) / LEVELS_PER_UNIT;
+    }
+
+    public void update(float renderedScale, double frameMillis, double budgetMillis) {
+        // Raster cost grows with the pixel count, i.e. with the square of the scale. The time was measured at
+        // the quantized scale the frame was drawn at, which can differ from the desired one by half a level.
+        double ideal = renderedScale * Math.sqrt(budgetMillis / Math.max(frameMillis, 1e-3));
+        double next = desiredScale + (ideal - desiredScale) * GAIN;
+        desiredScale = Math.max(MIN_SCALE, Math.min(1.0, next));
+    }
+
+    public void reset() {
+        // Timings from another viewport size or from before adaptive mode was turned on say nothing about now.
+        desiredScale = 1.0;
+    }
+
+    public static int scaledSize(int size, float scale) {
+        return size == 0 ? 0 : Math.max(1, Math.round(size * scale));
+    }
+}
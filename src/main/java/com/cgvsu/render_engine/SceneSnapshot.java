@@ -0,0 +1,55 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.model.Model;
+
+import java.util.List;
+
+public final class SceneSnapshot {
+    // Everything a frame reads, frozen on the UI thread so the render thread never sees a half-applied edit.
+    private final Camera camera;
+    private final List<Model> models;
+    private final TextureSampler texture;
+    private final RenderSettings settings;
+    private final int width;
+    private final int height;
+
+    public SceneSnapshot(
+            Camera camera,
+            List<Model> models,
+            TextureSampler texture,
+            RenderSettings settings,
+            int width,
+            int height) {
+        // The models must already be private copies; see ModelSnapshotCache.
+        this.camera = camera.copy();
+        this.models = List.copyOf(models);
+        this.texture = texture;
+        this.settings = new RenderSettings(settings);
+        this.width = width;
+        this.height = height;
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    public List<Model> getModels() {
+        return models;
+    }
+
+    public TextureSampler getTexture() {
+        return texture;
+    }
+
+    public RenderSettings getSettings() {
+        return settings;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -2,4 +2,14 @@ package com.cgvsu.render_engine;
 
 public interface TextureSampler {
     int sample(float u, float v);
+
+    default int mipLevel(float duDx, float dvDx, float duDy, float dvDy) {
+        // The level to sample for one triangle's screen-space UV derivatives, in 1/256 level steps; samplers
+        // without mip levels have only level 0.
+        return 0;
+    }
+
+    default int sample(float u, float v, int mipLevel) {
+        return sample(u, v);
+    }
 }
@@ -0,0 +1,223 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+final class TileRasterizer {
+    // A multiple of the coarse depth block size, so every block is owned by exactly one tile.
+    static final int TILE_SIZE = 64;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final int width;
+    private final int height;
+    private final int[] colorBuffer;
+    private final float[] depthBuffer;
+    private final CoarseDepthBuffer coarseDepth;
+    private final GBuffer gBuffer;
+    private final int baseColor;
+    private final TextureSampler textureSampler;
+    private final Vector3f lightPos;
+    private final boolean depthPrePass;
+    private final boolean vectorized;
+
+    private final int tilesX;
+    private final int tilesY;
+    private final int[][] tileTriangles;
+    private final int[] tileCounts;
+    // Pixel statistics per tile, two slots each; a tile is rasterized by one thread, so no slot is shared.
+    private final long[] tilePixelCounts;
+
+    // Lines share the list with triangles, stored with a null third vertex, so each tile keeps submission order.
+    private Rasterizer.Vertex[] triangles = new Rasterizer.Vertex[INITIAL_CAPACITY * 3];
+    private int triangleCount;
+
+    TileRasterizer(
+            int width,
+            int height,
+            int[] colorBuffer,
+            float[] depthBuffer,
+            CoarseDepthBuffer coarseDepth,
+            GBuffer gBuffer,
+            int baseColor,
+            TextureSampler textureSampler,
+            Vector3f lightPos,
+            boolean depthPrePass,
+            boolean vectorized) {
+        this.width = width;
+        this.height = height;
+        this.colorBuffer = colorBuffer;
+        this.depthBuffer = depthBuffer;
+        this.coarseDepth = coarseDepth;
+        this.gBuffer = gBuffer;
+        this.baseColor = baseColor;
+        this.textureSampler = textureSampler;
+        this.lightPos = lightPos;
+        this.depthPrePass = depthPrePass;
+        this.vectorized = vectorized;
+        this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.tileTriangles = new int[tilesX * tilesY][];
+        this.tileCounts = new int[tilesX * tilesY];
+        this.tilePixelCounts = new long[tilesX * tilesY * 2];
+    }
+
+    void addTriangle(Rasterizer.Vertex v0, Rasterizer.Vertex v1, Rasterizer.Vertex v2) {
+        // Bin by the same bounding box the rasterizer scans.
+        add(v0, v1, v2,
+                (int) Math.floor(Math.min(v0.x, Math.min(v1.x, v2.x))),
+                (int) Math.floor(Math.min(v0.y, Math.min(v1.y, v2.y))),
+                (int) Math.ceil(Math.max(v0.x, Math.max(v1.x, v2.x))),
+                (int) Math.ceil(Math.max(v0.y, Math.max(v1.y, v2.y))));
+    }
+
+    void addLine(Rasterizer.Vertex v0, Rasterizer.Vertex v1) {
+        // Rounded end points stay inside the floored and ceiled box of the exact ones.
+        add(v0, v1, null,
+                (int) Math.floor(Math.min(v0.x, v1.x)),
+                (int) Math.floor(Math.min(v0.y, v1.y)),
+                (int) Math.ceil(Math.max(v0.x, v1.x)),
+                (int) Math.ceil(Math.max(v0.y, v1.y)));
+    }
+
+    private void add(
+            Rasterizer.Vertex v0,
+            Rasterizer.Vertex v1,
+            Rasterizer.Vertex v2,
+            int boundsMinX,
+            int boundsMinY,
+            int boundsMaxX,
+            int boundsMaxY) {
+        int minX = Math.max(0, boundsMinX);
+        int maxX = Math.min(width - 1, boundsMaxX);
+        int minY = Math.max(0, boundsMinY);
+        int maxY = Math.min(height - 1, boundsMaxY);
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+
+        int triangleIndex = triangleCount;
+        if ((triangleIndex + 1) * 3 > triangles.length) {
+            triangles = Arrays.copyOf(triangles, triangles.length * 2);
+        }
+        triangles[triangleIndex * 3] = v0;
+        triangles[triangleIndex * 3 + 1] = v1;
+        triangles[triangleIndex * 3 + 2] = v2;
+        triangleCount++;
+
+        for (int tileY = minY / TILE_SIZE; tileY <= maxY / TILE_SIZE; tileY++) {
+            for (int tileX = minX / TILE_SIZE; tileX <= maxX / TILE_SIZE; tileX++) {
+                appendToTile(tileY * tilesX + tileX, triangleIndex);
+            }
+        }
+    }
+
+    void rasterize() {
+        if (triangleCount == 0) {
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new TileTask(0, tilesX * tilesY));
+    }
+
+    void addPixelCounts(long[] pixelCounts) {
+        // Valid after rasterize().
+        for (int tile = 0; tile < tileCounts.length; tile++) {
+            pixelCounts[RenderStats.PIXELS_TESTED] += tilePixelCounts[tile * 2 + RenderStats.PIXELS_TESTED];
+            pixelCounts[RenderStats.PIXELS_WRITTEN] += tilePixelCounts[tile * 2 + RenderStats.PIXELS_WRITTEN];
+        }
+    }
+
+    private void appendToTile(int tile, int triangleIndex) {
+        int[] list = tileTriangles[tile];
+        int count = tileCounts[tile];
+        if (list == null) {
+            list = new int[16];
+            tileTriangles[tile] = list;
+        } else if (count == list.length) {
+            list = Arrays.copyOf(list, count * 2);
+            tileTriangles[tile] = list;
+        }
+        list[count] = triangleIndex;
+        tileCounts[tile] = count + 1;
+    }
+
+    private void rasterizeTile(int tile) {
+        int count = tileCounts[tile];
+        if (count == 0) {
+            return;
+        }
+        int[] list = tileTriangles[tile];
+        int clipMinX = (tile % tilesX) * TILE_SIZE;
+        int clipMinY = (tile / tilesX) * TILE_SIZE;
+        int clipMaxX = Math.min(width - 1, clipMinX + TILE_SIZE - 1);
+        int clipMaxY = Math.min(height - 1, clipMinY + TILE_SIZE - 1);
+        long[] pixelCounts = new long[2];
+        // A tile is rasterized start to finish on one worker thread, so it can use that thread's kernels.
+        FragmentKernel.Cache kernels = Rasterizer.threadKernels();
+
+        // The deferred path shades later from the G-buffer, so a depth pre-pass would only add work.
+        if (depthPrePass && gBuffer == null) {
+            // Both passes run per tile, so the depth written by the first is still in cache for the second.
+            for (int i = 0; i < count; i++) {
+                int base = list[i] * 3;
+                if (triangles[base + 2] == null) {
+                    continue;
+                }
+                Rasterizer.rasterizeTriangle(
+                        triangles[base], triangles[base + 1], triangles[base + 2], width, height,
+                        colorBuffer, depthBuffer, baseColor, textureSampler, lightPos,
+                        coarseDepth, null, DepthPass.DEPTH_ONLY, vectorized, clipMinX, clipMinY, clipMaxX, clipMaxY,
+                        pixelCounts, kernels);
+            }
+        }
+        DepthPass shadingPass = gBuffer != null
+                ? DepthPass.GEOMETRY
+                : depthPrePass ? DepthPass.SHADE_EQUAL : DepthPass.SINGLE;
+
+        // Triangles are kept in submission order inside a tile, so depth ties resolve as in the serial path.
+        for (int i = 0; i < count; i++) {
+            int base = list[i] * 3;
+            Rasterizer.Vertex v0 = triangles[base];
+            Rasterizer.Vertex v1 = triangles[base + 1];
+            Rasterizer.Vertex v2 = triangles[base + 2];
+            if (v2 == null) {
+                Rasterizer.rasterizeLine(
+                        v0, v1, width, height, colorBuffer, depthBuffer, gBuffer, Rasterizer.WIREFRAME_COLOR,
+                        clipMinX, clipMinY, clipMaxX, clipMaxY);
+                continue;
+            }
+            Rasterizer.rasterizeTriangle(
+                    v0, v1, v2, width, height, colorBuffer, depthBuffer, baseColor, textureSampler, lightPos,
+                    coarseDepth, gBuffer, shadingPass, vectorized, clipMinX, clipMinY, clipMaxX, clipMaxY,
+                    pixelCounts, kernels);
+        }
+        tilePixelCounts[tile * 2 + RenderStats.PIXELS_TESTED] = pixelCounts[RenderStats.PIXELS_TESTED];
+        tilePixelCounts[tile * 2 + RenderStats.PIXELS_WRITTEN] = pixelCounts[RenderStats.PIXELS_WRITTEN];
+    }
+
+    private final class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+
+        private TileTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= 1) {
+                for (int tile = start; tile < end; tile++) {
+                    rasterizeTile(tile);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new TileTask(start, middle), new TileTask(middle, end));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+
+final class TriangleClipper {
+    static final int OUTSIDE_LEFT = 1;
+    static final int OUTSIDE_RIGHT = 1 << 1;
+    static final int OUTSIDE_BOTTOM = 1 << 2;
+    static final int OUTSIDE_TOP = 1 << 3;
+    static final int OUTSIDE_NEAR = 1 << 4;
+    static final int OUTSIDE_FAR = 1 << 5;
+
+    // Near plus four guard-band planes: each clip adds at most one corner to the triangle's three.
+    private static final int MAX_CORNERS = 8;
+    private static final int STRIDE = 7;
+    // Clipped fans stay within half the rasterizer's guard band, so rounding never pushes a corner past it.
+    private static final float GUARD_BAND = Rasterizer.GUARD_BAND * 0.5f;
+
+    private final float[] clipX = new float[3];
+    private final float[] clipY = new float[3];
+    private final float[] clipZ = new float[3];
+    private final float[] clipW = new float[3];
+    private final Vector3f[] positions = new Vector3f[3];
+    private final float[] normalX = new float[3];
+    private final float[] normalY = new float[3];
+    private final float[] normalZ = new float[3];
+    private final boolean[] hasNormal = new boolean[3];
+    private final Vector2f[] texCoords = new Vector2f[3];
+    private final Rasterizer.Vertex[] corners = new Rasterizer.Vertex[MAX_CORNERS];
+    // Polygon being clipped, ping-ponged between two buffers: clip-space x, y, z, w and the barycentric weights
+    // of the three original corners, so attributes are interpolated once, at projection.
+    private float[] polygon = new float[MAX_CORNERS * STRIDE];
+    private float[] clipped = new float[MAX_CORNERS * STRIDE];
+
+    static int outcode(float x, float y, float z, float w) {
+        // OpenGL clip volume: -w <= x, y, z <= w.
+        int code = 0;
+        if (x < -w) {
+            code |= OUTSIDE_LEFT;
+        } else if (x > w) {
+            code |= OUTSIDE_RIGHT;
+        }
+        if (y < -w) {
+            code |= OUTSIDE_BOTTOM;
+        } else if (y > w) {
+            code |= OUTSIDE_TOP;
+        }
+        if (z < -w) {
+            code |= OUTSIDE_NEAR;
+        } else if (z > w) {
+            code |= OUTSIDE_FAR;
+        }
+        return code;
+    }
+
+    void setCorner(int corner, float x, float y, float z, float w, Vector3f position, Vector2f texCoord) {
+        // Clears the corner's normal; setCornerNormal adds one. Output corners have normals only if all three do.
+        clipX[corner] = x;
+        clipY[corner] = y;
+        clipZ[corner] = z;
+        clipW[corner] = w;
+        positions[corner] = position;
+        hasNormal[corner] = false;
+        texCoords[corner] = texCoord;
+    }
+
+    void setCornerNormal(int corner, float x, float y, float z) {
+        normalX[corner] = x;
+        normalY[corner] = y;
+        normalZ[corner] = z;
+        hasNormal[corner] = true;
+    }
+
+    int clip(int width, int height) {
+        // Returns how many projected corners (0 or 3 to 8) form the clipped convex fan in getCorners().
+        // Sutherland-Hodgman before the divide: first against z >= -w, so W stays positive, then against the
+        // guard band, so a triangle reaching far off-screen is cut down instead of rejected by the rasterizer.
+        for (int i = 0; i < 3; i++) {
+            int base = i * STRIDE;
+            polygon[base] = clipX[i];
+            polygon[base + 1] = clipY[i];
+            polygon[base + 2] = clipZ[i];
+            polygon[base + 3] = clipW[i];
+            polygon[base + 4] = i == 0 ? 1.0f : 0.0f;
+            polygon[base + 5] = i == 1 ? 1.0f : 0.0f;
+            polygon[base + 6] = i == 2 ? 1.0f : 0.0f;
+        }
+        // Screen x = (x / w + 1) * width / 2 stays within the band while x / w lies in [minX, maxX]; y is flipped.
+        float maxX = 2.0f * GUARD_BAND / width - 1.0f;
+        float minX = -2.0f * GUARD_BAND / width - 1.0f;
+        float maxY = 1.0f + 2.0f * GUARD_BAND / height;
+        float minY = 1.0f - 2.0f * GUARD_BAND / height;
+        int count = 3;
+        count = clipPlane(count, 0.0f, 0.0f, 1.0f, 1.0f);
+        count = clipPlane(count, 1.0f, 0.0f, 0.0f, -minX);
+        count = clipPlane(count, -1.0f, 0.0f, 0.0f, maxX);
+        count = clipPlane(count, 0.0f, 1.0f, 0.0f, -minY);
+        count = clipPlane(count, 0.0f, -1.0f, 0.0f, maxY);
+        for (int i = 0; i < count; i++) {
+            corners[i] = project(i * STRIDE, width, height);
+        }
+        return count;
+    }
+
+    private int clipPlane(int count, float a, float b, float c, float d) {
+        // Keeps the part with a * x + b * y + c * z + d * w >= 0.
+        if (count == 0) {
+            return 0;
+        }
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            int current = i * STRIDE;
+            int next = (i + 1 == count ? 0 : i + 1) * STRIDE;
+            float distance = a * polygon[current] + b * polygon[current + 1] + c * polygon[current + 2]
+                    + d * polygon[current + 3];
+            float nextDistance = a * polygon[next] + b * polygon[next + 1] + c * polygon[next + 2]
+                    + d * polygon[next + 3];
+            if (distance >= 0) {
+                System.arraycopy(polygon, current, clipped, result * STRIDE, STRIDE);
+                result++;
+            }
+            if ((distance >= 0) != (nextDistance >= 0)) {
+                float t = distance / (distance - nextDistance);
+                int target = result * STRIDE;
+                for (int k = 0; k < STRIDE; k++) {
+                    clipped[target + k] = lerp(polygon[current + k], polygon[next + k], t);
+                }
+                result++;
+            }
+        }
+        float[] swap = polygon;
+        polygon = clipped;
+        clipped = swap;
+        return result;
+    }
+
+    static Rasterizer.Vertex clipLineNear(
+            float frontX,
+            float frontY,
+            float frontZ,
+            float frontW,
+            float backX,
+            float backY,
+            float backZ,
+            float backW,
+            int width,
+            int height) {
+        // Projected point where a line from a corner in front of the near plane to one behind it crosses it.
+        float distance = frontZ + frontW;
+        float t = distance / (distance - (backZ + backW));
+        float x = lerp(frontX, backX, t);
+        float y = lerp(frontY, backY, t);
+        float z = lerp(frontZ, backZ, t);
+        float w = lerp(frontW, backW, t);
+        // Same viewport mapping as VertexCache.
+        return new Rasterizer.Vertex(
+                (x / w + 1.0F) * 0.5F * width, (1.0F - y / w) * 0.5F * height, z / w, null, null, null);
+    }
+
+    Rasterizer.Vertex[] getCorners() {
+        return corners;
+    }
+
+    private Rasterizer.Vertex project(int base, int width, int height) {
+        float x = polygon[base];
+        float y = polygon[base + 1];
+        float z = polygon[base + 2];
+        float w = polygon[base + 3];
+        // Same viewport mapping as VertexCache.
+        float screenX = (x / w + 1.0F) * 0.5F * width;
+        float screenY = (1.0F - y / w) * 0.5F * height;
+        float b0 = polygon[base + 4];
+        float b1 = polygon[base + 5];
+        float b2 = polygon[base + 6];
+        // An unclipped corner keeps its own attributes.
+        int original = b0 == 1.0f ? 0 : b1 == 1.0f ? 1 : b2 == 1.0f ? 2 : -1;
+        boolean normals = hasNormal[0] && hasNormal[1] && hasNormal[2];
+        if (original >= 0) {
+            Vector3f normal = normals
+                    ? new Vector3f(normalX[original], normalY[original], normalZ[original])
+                    : null;
+            return new Rasterizer.Vertex(
+                    screenX, screenY, z / w, positions[original], normal, texCoords[original]);
+        }
+        Vector3f normal = normals
+                ? new Vector3f(
+                        normalX[0] * b0 + normalX[1] * b1 + normalX[2] * b2,
+                        normalY[0] * b0 + normalY[1] * b1 + normalY[2] * b2,
+                        normalZ[0] * b0 + normalZ[1] * b1 + normalZ[2] * b2)
+                : null;
+        return new Rasterizer.Vertex(
+                screenX,
+                screenY,
+                z / w,
+                blend(positions, b0, b1, b2),
+                normal,
+                blend(texCoords, b0, b1, b2));
+    }
+
+    private static Vector3f blend(Vector3f[] values, float b0, float b1, float b2) {
+        if (values[0] == null || values[1] == null || values[2] == null) {
+            return null;
+        }
+        return new Vector3f(
+                values[0].getX() * b0 + values[1].getX() * b1 + values[2].getX() * b2,
+                values[0].getY() * b0 + values[1].getY() * b1 + values[2].getY() * b2,
+                values[0].getZ() * b0 + values[1].getZ() * b1 + values[2].getZ() * b2);
+    }
+
+    private static Vector2f blend(Vector2f[] values, float b0, float b1, float b2) {
+        if (values[0] == null || values[1] == null || values[2] == null) {
+            return null;
+        }
+        return new Vector2f(
+                values[0].getX() * b0 + values[1].getX() * b1 + values[2].getX() * b2,
+                values[0].getY() * b0 + values[1].getY() * b1 + values[2].getY() * b2);
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+}
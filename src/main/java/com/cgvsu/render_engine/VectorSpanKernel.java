@@ -0,0 +1,83 @@
+package com.cgvsu.render_engine;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorSpanKernel {
+    // Only loaded when Rasterizer.VECTOR_KERNEL_AVAILABLE is true; 8 lanes cover one coarse depth block row.
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_256;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_256;
+    static final int BLOCK_LANES = 8;
+    private static final IntVector LANE_INDEX = IntVector.fromArray(INT_SPECIES, new int[] {0, 1, 2, 3, 4, 5, 6, 7}, 0);
+
+    private VectorSpanKernel() {
+    }
+
+    static long coverRow(
+            int e0,
+            int e1,
+            int e2,
+            int stepX0,
+            int stepX1,
+            int stepX2,
+            int bias0,
+            int bias1,
+            int bias2,
+            int count,
+            float invArea,
+            float z0,
+            float z1,
+            float z2,
+            float[] depthBuffer,
+            int index,
+            boolean shadeEqual,
+            boolean storeDepth,
+            float[] out) {
+        // Same integer edge values as the scalar walk, so coverage is identical lane for lane.
+        IntVector edge0 = LANE_INDEX.mul(stepX0).add(e0);
+        IntVector edge1 = LANE_INDEX.mul(stepX1).add(e1);
+        IntVector edge2 = LANE_INDEX.mul(stepX2).add(e2);
+        VectorMask<Integer> covered = edge0.add(bias0)
+                .or(edge1.add(bias1))
+                .or(edge2.add(bias2))
+                .compare(VectorOperators.GE, 0)
+                .and(INT_SPECIES.indexInRange(0, count));
+        if (!covered.anyTrue()) {
+            return 0;
+        }
+        VectorMask<Float> coveredLanes = covered.cast(FLOAT_SPECIES);
+        // A full row lies inside one block, which a single thread owns, so plain loads and stores are safe.
+        boolean fullRow = count == BLOCK_LANES;
+
+        // Separate multiply and add, in the scalar order, so depth matches bit for bit.
+        FloatVector w0 = ((FloatVector) edge0.convert(VectorOperators.I2F, 0)).mul(invArea);
+        FloatVector w1 = ((FloatVector) edge1.convert(VectorOperators.I2F, 0)).mul(invArea);
+        FloatVector w2 = ((FloatVector) edge2.convert(VectorOperators.I2F, 0)).mul(invArea);
+        FloatVector depth = w0.mul(z0).add(w1.mul(z1)).add(w2.mul(z2));
+        FloatVector stored = fullRow
+                ? FloatVector.fromArray(FLOAT_SPECIES, depthBuffer, index)
+                : FloatVector.fromArray(FLOAT_SPECIES, depthBuffer, index, coveredLanes);
+        // Written as the scalar test is, including how NaN depths behave.
+        VectorMask<Float> passed = shadeEqual
+                ? depth.compare(VectorOperators.EQ, stored)
+                : depth.compare(VectorOperators.GE, stored).not();
+        passed = passed.and(coveredLanes);
+        if (storeDepth) {
+            if (fullRow) {
+                stored.blend(depth, passed).intoArray(depthBuffer, index);
+            } else {
+                depth.intoArray(depthBuffer, index, passed);
+            }
+        } else {
+            // Lane results go out as four consecutive 8-float groups: w0, w1, w2, depth.
+            w0.intoArray(out, 0);
+            w1.intoArray(out, BLOCK_LANES);
+            w2.intoArray(out, BLOCK_LANES * 2);
+            depth.intoArray(out, BLOCK_LANES * 3);
+        }
+        return passed.toLong();
+    }
+}
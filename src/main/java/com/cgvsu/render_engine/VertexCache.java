@@ -0,0 +1,193 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.Arrays;
+import java.util.List;
+
+final class VertexCache {
+    // Post-transform cache: every mesh vertex is projected once per frame and polygons index into it.
+    private float[] screenX = new float[0];
+    private float[] screenY = new float[0];
+    private float[] depth = new float[0];
+    private float[] clipX = new float[0];
+    private float[] clipY = new float[0];
+    private float[] clipZ = new float[0];
+    private float[] clipW = new float[0];
+    private int[] outcodes = new int[0];
+    // World-space unit normals, one entry per mesh normal.
+    private float[] normalX = new float[0];
+    private float[] normalY = new float[0];
+    private float[] normalZ = new float[0];
+    private boolean[] edgeMarks = new boolean[0];
+
+    private long allocationCount;
+    private long allocatedBytes;
+
+    void transformVertices(List<Vector3f> vertices, Matrix4 matrix, int width, int height) {
+        int count = vertices.size();
+        ensureVertexCapacity(count);
+
+        float m00 = matrix.get(0, 0), m01 = matrix.get(0, 1), m02 = matrix.get(0, 2), m03 = matrix.get(0, 3);
+        float m10 = matrix.get(1, 0), m11 = matrix.get(1, 1), m12 = matrix.get(1, 2), m13 = matrix.get(1, 3);
+        float m20 = matrix.get(2, 0), m21 = matrix.get(2, 1), m22 = matrix.get(2, 2), m23 = matrix.get(2, 3);
+        float m30 = matrix.get(3, 0), m31 = matrix.get(3, 1), m32 = matrix.get(3, 2), m33 = matrix.get(3, 3);
+
+        for (int i = 0; i < count; i++) {
+            Vector3f vertex = vertices.get(i);
+            float x = vertex.getX();
+            float y = vertex.getY();
+            float z = vertex.getZ();
+            // Same operation order as GraphicConveyor.transformToNdc + vertexToPoint, so results are identical.
+            float clipX = m00 * x + m01 * y + m02 * z + m03 * 1.0F;
+            float clipY = m10 * x + m11 * y + m12 * z + m13 * 1.0F;
+            float clipZ = m20 * x + m21 * y + m22 * z + m23 * 1.0F;
+            float w = m30 * x + m31 * y + m32 * z + m33 * 1.0F;
+
+            float ndcX = 0.0F;
+            float ndcY = 0.0F;
+            float ndcZ = 0.0F;
+            if (Math.abs(w) >= 1e-7f) {
+                ndcX = clipX / w;
+                ndcY = clipY / w;
+                ndcZ = clipZ / w;
+            }
+            screenX[i] = (ndcX + 1.0F) * 0.5F * width;
+            screenY[i] = (1.0F - ndcY) * 0.5F * height;
+            depth[i] = ndcZ;
+            this.clipX[i] = clipX;
+            this.clipY[i] = clipY;
+            this.clipZ[i] = clipZ;
+            clipW[i] = w;
+            outcodes[i] = TriangleClipper.outcode(clipX, clipY, clipZ, w);
+        }
+    }
+
+    void transformNormals(List<Vector3f> meshNormals, Matrix4 modelMatrix) {
+        int count = meshNormals.size();
+        if (normalX.length < count) {
+            int capacity = Math.max(count, normalX.length + (normalX.length >> 1));
+            normalX = new float[capacity];
+            normalY = new float[capacity];
+            normalZ = new float[capacity];
+            recordAllocation((long) capacity * Float.BYTES * 3);
+        }
+
+        float m00 = modelMatrix.get(0, 0), m01 = modelMatrix.get(0, 1), m02 = modelMatrix.get(0, 2);
+        float m03 = modelMatrix.get(0, 3);
+        float m10 = modelMatrix.get(1, 0), m11 = modelMatrix.get(1, 1), m12 = modelMatrix.get(1, 2);
+        float m13 = modelMatrix.get(1, 3);
+        float m20 = modelMatrix.get(2, 0), m21 = modelMatrix.get(2, 1), m22 = modelMatrix.get(2, 2);
+        float m23 = modelMatrix.get(2, 3);
+
+        for (int i = 0; i < count; i++) {
+            Vector3f normal = meshNormals.get(i);
+            float x = normal.getX();
+            float y = normal.getY();
+            float z = normal.getZ();
+            float nx = m00 * x + m01 * y + m02 * z + m03 * 0.0F;
+            float ny = m10 * x + m11 * y + m12 * z + m13 * 0.0F;
+            float nz = m20 * x + m21 * y + m22 * z + m23 * 0.0F;
+            // Same arithmetic as Vector3f.normalize, including the zero-length case.
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (Math.abs(length) < 1e-7) {
+                nx = 0.0F;
+                ny = 0.0F;
+                nz = 0.0F;
+            } else {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+            normalX[i] = nx;
+            normalY[i] = ny;
+            normalZ[i] = nz;
+        }
+    }
+
+    float[] getScreenX() {
+        return screenX;
+    }
+
+    float[] getScreenY() {
+        return screenY;
+    }
+
+    float[] getDepth() {
+        return depth;
+    }
+
+    float[] getClipX() {
+        return clipX;
+    }
+
+    float[] getClipY() {
+        return clipY;
+    }
+
+    float[] getClipZ() {
+        return clipZ;
+    }
+
+    float[] getClipW() {
+        return clipW;
+    }
+
+    int[] getOutcodes() {
+        return outcodes;
+    }
+
+    float[] getNormalX() {
+        return normalX;
+    }
+
+    float[] getNormalY() {
+        return normalY;
+    }
+
+    float[] getNormalZ() {
+        return normalZ;
+    }
+
+    boolean[] clearedEdgeMarks(int edgeCount) {
+        // One flag per unique edge, set by every triangle that survives culling.
+        if (edgeMarks.length < edgeCount) {
+            edgeMarks = new boolean[Math.max(edgeCount, edgeMarks.length + (edgeMarks.length >> 1))];
+            recordAllocation(edgeMarks.length);
+        } else {
+            Arrays.fill(edgeMarks, 0, edgeCount, false);
+        }
+        return edgeMarks;
+    }
+
+    long getAllocationCount() {
+        return allocationCount;
+    }
+
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private void ensureVertexCapacity(int count) {
+        if (screenX.length >= count) {
+            return;
+        }
+        // Grow with headroom so alternating meshes of similar size do not reallocate every frame.
+        int capacity = Math.max(count, screenX.length + (screenX.length >> 1));
+        screenX = new float[capacity];
+        screenY = new float[capacity];
+        depth = new float[capacity];
+        clipX = new float[capacity];
+        clipY = new float[capacity];
+        clipZ = new float[capacity];
+        clipW = new float[capacity];
+        outcodes = new int[capacity];
+        recordAllocation((long) capacity * (Float.BYTES * 7 + Integer.BYTES));
+    }
+
+    private void recordAllocation(long bytes) {
+        allocationCount++;
+        allocatedBytes += bytes;
+    }
+}
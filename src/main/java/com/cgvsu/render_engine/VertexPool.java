@@ -0,0 +1,75 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+
+final class VertexPool {
+    // Rasterizer vertices refilled frame after frame. The tile rasterizer keeps every submitted vertex until the
+    // end of the frame, so vertices are handed back all at once by reset(); the serial path, which is done with a
+    // triangle as soon as it is drawn, hands them back early with release().
+    private Rasterizer.Vertex[] vertices = new Rasterizer.Vertex[0];
+    // The normal of each pooled vertex, set in place.
+    private Vector3f[] normals = new Vector3f[0];
+    private int used;
+
+    private long allocationCount;
+    private long allocatedBytes;
+
+    void reset() {
+        used = 0;
+    }
+
+    int mark() {
+        return used;
+    }
+
+    void release(int mark) {
+        used = mark;
+    }
+
+    Rasterizer.Vertex next(float x, float y, float z, Vector3f position, Vector2f texCoord) {
+        return take().set(x, y, z, position, null, texCoord);
+    }
+
+    Rasterizer.Vertex next(
+            float x, float y, float z, Vector3f position, float normalX, float normalY, float normalZ,
+            Vector2f texCoord) {
+        int slot = used;
+        Rasterizer.Vertex vertex = take();
+        Vector3f normal = normals[slot];
+        normal.set(normalX, normalY, normalZ);
+        return vertex.set(x, y, z, position, normal, texCoord);
+    }
+
+    long getAllocationCount() {
+        return allocationCount;
+    }
+
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private Rasterizer.Vertex take() {
+        if (used == vertices.length) {
+            grow();
+        }
+        return vertices[used++];
+    }
+
+    private void grow() {
+        // Grows with headroom; a frame with as many triangles as the last one allocates nothing.
+        int capacity = Math.max(48, vertices.length + (vertices.length >> 1));
+        Rasterizer.Vertex[] grownVertices = new Rasterizer.Vertex[capacity];
+        Vector3f[] grownNormals = new Vector3f[capacity];
+        System.arraycopy(vertices, 0, grownVertices, 0, vertices.length);
+        System.arraycopy(normals, 0, grownNormals, 0, normals.length);
+        for (int i = vertices.length; i < capacity; i++) {
+            grownVertices[i] = new Rasterizer.Vertex(0, 0, 0, null, null, null);
+            grownNormals[i] = new Vector3f();
+        }
+        vertices = grownVertices;
+        normals = grownNormals;
+        allocationCount++;
+        allocatedBytes += (long) capacity * Integer.BYTES * 2;
+    }
+}
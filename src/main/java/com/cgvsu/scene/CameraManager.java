@@ -8,12 +8,14 @@ public class CameraManager {
     // Ксюня: хранение и переключение активной камеры (пункт 16).
     private final List<SceneCamera> cameras = new ArrayList<>();
     private int activeIndex = -1;
+    private long version;
 
     public SceneCamera add(SceneCamera camera) {
         cameras.add(camera);
         if (activeIndex < 0) {
             activeIndex = 0;
         }
+        version++;
         return camera;
     }
 
@@ -21,10 +23,12 @@ public class CameraManager {
         if (cameras.size() <= 1 || activeIndex < 0) {
             return false;
         }
-        cameras.remove(activeIndex);
+        SceneCamera removed = cameras.remove(activeIndex);
         if (activeIndex >= cameras.size()) {
             activeIndex = cameras.size() - 1;
         }
+        // Keep the removed camera's count, so getVersion() never goes back to an earlier value.
+        version += removed.getCamera().getVersion() + 1;
         return true;
     }
 
@@ -37,8 +41,9 @@ public class CameraManager {
 
     public SceneCamera setActive(SceneCamera camera) {
         int index = cameras.indexOf(camera);
-        if (index >= 0) {
+        if (index >= 0 && index != activeIndex) {
             activeIndex = index;
+            version++;
         }
         return getActive();
     }
@@ -48,9 +53,19 @@ public class CameraManager {
             return null;
         }
         activeIndex = (activeIndex + 1) % cameras.size();
+        version++;
         return getActive();
     }
 
+    public long getVersion() {
+        // Grows whenever the camera list, the active camera or any camera's view changes.
+        long total = version;
+        for (SceneCamera camera : cameras) {
+            total += camera.getCamera().getVersion();
+        }
+        return total;
+    }
+
     public List<SceneCamera> getCameras() {
         return Collections.unmodifiableList(cameras);
     }
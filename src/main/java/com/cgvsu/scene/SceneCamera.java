@@ -1,5 +1,6 @@
 package com.cgvsu.scene;
 
+import com.cgvsu.math.vectors.Vector3f;
 import com.cgvsu.model.Model;
 import com.cgvsu.render_engine.Camera;
 
@@ -26,4 +27,8 @@ public class SceneCamera {
     public Model getGizmoModel() {
         return gizmoModel;
     }
+
+    public Vector3f getPosition() {
+        return camera.getPosition();
+    }
 }
@@ -15,6 +15,7 @@ public class SceneModel {
     private final Vector3f translation = new Vector3f(0, 0, 0);
     private final Vector3f rotation = new Vector3f(0, 0, 0);
     private final Vector3f scale = new Vector3f(1, 1, 1);
+    private long transformVersion;
 
     public SceneModel(Model model, String name, Path sourcePath) {
         this.model = model;
@@ -65,6 +66,7 @@ public class SceneModel {
                 translation.getX() + delta.getX(),
                 translation.getY() + delta.getY(),
                 translation.getZ() + delta.getZ());
+        transformVersion++;
     }
 
     public void rotate(Vector3f deltaDegrees) {
@@ -72,6 +74,7 @@ public class SceneModel {
                 rotation.getX() + deltaDegrees.getX(),
                 rotation.getY() + deltaDegrees.getY(),
                 rotation.getZ() + deltaDegrees.getZ());
+        transformVersion++;
     }
 
     public void scale(Vector3f factor) {
@@ -79,12 +82,14 @@ public class SceneModel {
                 scale.getX() * factor.getX(),
                 scale.getY() * factor.getY(),
                 scale.getZ() * factor.getZ());
+        transformVersion++;
     }
 
     public void resetTransform() {
         translation.set(0, 0, 0);
         rotation.set(0, 0, 0);
         scale.set(1, 1, 1);
+        transformVersion++;
     }
 
     public void resetToOriginal() {
@@ -95,6 +100,11 @@ public class SceneModel {
         ModelOperations.copyInto(model, originalModel);
     }
 
+    public long getVersion() {
+        // Both counters only grow, so their sum changes whenever the transform or the geometry does.
+        return transformVersion + model.getVersion();
+    }
+
     @Override
     public String toString() {
         return name;
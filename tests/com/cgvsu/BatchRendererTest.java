@@ -0,0 +1,43 @@
+package com.cgvsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class BatchRendererTest {
+
+    @Test
+    public void rendersEveryViewOfEveryModel(@TempDir Path directory) throws IOException, InterruptedException {
+        Path input = Files.createDirectory(directory.resolve("models"));
+        Path output = directory.resolve("images");
+        String quad = "v -1 -1 0\nv 1 -1 0\nv 1 1 0\nv -1 1 0\nf 1 2 3 4\n";
+        Files.writeString(input.resolve("a.obj"), quad);
+        Files.writeString(input.resolve("b.obj"), quad);
+        Files.writeString(input.resolve("broken.obj"), "v 0 0\n");
+        Files.writeString(input.resolve("notes.txt"), "not a model");
+
+        int failed = BatchRenderer.renderDirectory(input, output, 3, 16, 2);
+
+        assertEquals(1, failed);
+        for (String name : new String[] {"a", "b"}) {
+            for (int view = 0; view < 3; view++) {
+                BufferedImage image = ImageIO.read(output.resolve(name + "_0" + view + ".png").toFile());
+                assertEquals(16, image.getWidth());
+                assertEquals(16, image.getHeight());
+                // The model fills the view, so the center pixel is not background.
+                assertNotEquals(0xFF000000, image.getRGB(8, 8));
+            }
+        }
+        assertFalse(Files.exists(output.resolve("broken_00.png")));
+        assertFalse(Files.exists(output.resolve("notes_00.png")));
+    }
+}
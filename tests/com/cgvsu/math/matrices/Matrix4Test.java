@@ -6,6 +6,7 @@ import com.cgvsu.math.matrices.Matrix4;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class Matrix4Test {
 
@@ -169,4 +170,19 @@ public class Matrix4Test {
             }
         }
     }
+
+    @Test
+    public void testInverse() {
+        System.out.println("Matrix4: Тестирование обратной матрицы...");
+        Matrix4 m = Matrix4.translate(1, 2, 3).mult(Matrix4.rotateY(0.7f)).mult(Matrix4.scale(2, 3, 4));
+        Matrix4 result = m.mult(m.inv());
+        Matrix4 identity = new Matrix4().identity();
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(identity.get(i, j), result.get(i, j), 0.0001);
+            }
+        }
+        assertThrows(ArithmeticException.class, () -> new Matrix4().inv());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.AffineTransformations;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class BoundingSphereTest {
+
+    @Test
+    void testSphereContainsAllPoints() {
+        List<Vector3f> points = List.of(
+                new Vector3f(-1, 2, 0), new Vector3f(3, -4, 5), new Vector3f(0.5f, 0.25f, -2));
+        BoundingSphere sphere = BoundingSphere.of(points);
+        for (Vector3f point : points) {
+            float dx = point.getX() - sphere.getCenterX();
+            float dy = point.getY() - sphere.getCenterY();
+            float dz = point.getZ() - sphere.getCenterZ();
+            Assertions.assertTrue(Math.sqrt(dx * dx + dy * dy + dz * dz) <= sphere.getRadius());
+        }
+        Assertions.assertNull(BoundingSphere.of(List.of()));
+    }
+
+    @Test
+    void testModelCachesSphereUntilModified() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, 0, 0));
+        model.vertices.add(new Vector3f(2, 0, 0));
+        BoundingSphere first = model.getBoundingSphere();
+        Assertions.assertSame(first, model.getBoundingSphere());
+
+        model.vertices.add(new Vector3f(0, 4, 0));
+        BoundingSphere grown = model.getBoundingSphere();
+        Assertions.assertNotSame(first, grown);
+
+        AffineTransformations.translate(model.vertices, 10, 0, 0);
+        Assertions.assertSame(grown, model.getBoundingSphere());
+        model.markModified();
+        Assertions.assertEquals(11.0f, model.getBoundingSphere().getCenterX(), 1e-6f);
+    }
+}
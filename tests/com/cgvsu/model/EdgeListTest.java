@@ -0,0 +1,57 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EdgeListTest {
+
+    @Test
+    public void sharedEdgeIsStoredOnce() {
+        Model model = new Model();
+        model.polygons.add(polygon(0, 1, 2));
+        model.polygons.add(polygon(2, 1, 3));
+        model.polygons.add(polygon(0, 1, 2, 3));
+
+        EdgeList edges = EdgeList.of(model.polygons);
+
+        assertEquals(5, edges.getEdgeCount());
+        int[] polygonEdges = edges.getPolygonEdges();
+        // Edge 1-2 of the first triangle is edge 2-1 of the second one.
+        assertEquals(polygonEdges[1], polygonEdges[3]);
+        assertEquals(Arrays.asList(-1, -1, -1), Arrays.asList(polygonEdges[6], polygonEdges[7], polygonEdges[8]));
+        int[] vertices = edges.getEdgeVertices();
+        assertEquals(Arrays.asList(0, 1, 1, 2, 2, 0), Arrays.asList(
+                vertices[0], vertices[1], vertices[2], vertices[3], vertices[4], vertices[5]));
+    }
+
+    @Test
+    public void modelRebuildsEdgesAfterModification() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f());
+        model.polygons.add(polygon(0, 1, 2));
+        EdgeList first = model.getEdgeList();
+        assertSame(first, model.getEdgeList());
+
+        model.polygons.add(polygon(1, 2, 3));
+        EdgeList grown = model.getEdgeList();
+        assertNotSame(first, grown);
+        assertEquals(5, grown.getEdgeCount());
+
+        model.polygons.get(1).getVertexIndices().set(2, 4);
+        model.markModified();
+        assertNotSame(grown, model.getEdgeList());
+    }
+
+    private static Polygon polygon(Integer... indices) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(Arrays.asList(indices)));
+        return polygon;
+    }
+}
@@ -0,0 +1,50 @@
+package com.cgvsu.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LevelOfDetailBuilderTest {
+
+    @Test
+    public void levelsAreBuiltFromTheSnapshot() throws InterruptedException {
+        // The live model is never read for geometry, so an empty one gets the levels of its snapshot.
+        Model live = new Model();
+        try (LevelOfDetailBuilder builder = new LevelOfDetailBuilder()) {
+            builder.request(live, MeshFixtures.grid(20));
+            awaitLevels(builder);
+        }
+        assertFalse(live.getLevelsOfDetail().isEmpty());
+    }
+
+    @Test
+    public void editsInQuickSuccessionEndWithLevelsOfTheLatestVersion() throws InterruptedException {
+        Model model = MeshFixtures.grid(20);
+        try (LevelOfDetailBuilder builder = new LevelOfDetailBuilder()) {
+            for (int edit = 0; edit < 5; edit++) {
+                builder.request(model, snapshot(model));
+                model.markModified();
+            }
+            builder.request(model, snapshot(model));
+            awaitLevels(builder);
+        }
+        assertFalse(model.getLevelsOfDetail().isEmpty());
+    }
+
+    private static void awaitLevels(LevelOfDetailBuilder builder) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        boolean applied = builder.applyCompleted();
+        while (!applied && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            applied = builder.applyCompleted();
+        }
+        assertTrue(applied);
+    }
+
+    private static Model snapshot(Model model) {
+        Model copy = new Model();
+        ModelOperations.copyInto(model, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public final class MeshFixtures {
+    // Mesh fixtures shared by the tests.
+
+    private MeshFixtures() {
+    }
+
+    public static Model grid(int cells) {
+        // A flat cells x cells grid of unit quads in the z = 0 plane.
+        Model model = new Model();
+        for (int y = 0; y <= cells; y++) {
+            for (int x = 0; x <= cells; x++) {
+                model.vertices.add(new Vector3f(x, y, 0));
+            }
+        }
+        for (int y = 0; y < cells; y++) {
+            for (int x = 0; x < cells; x++) {
+                int corner = y * (cells + 1) + x;
+                Polygon quad = new Polygon();
+                quad.setVertexIndices(new ArrayList<>(Arrays.asList(
+                        corner, corner + 1, corner + cells + 2, corner + cells + 1)));
+                model.polygons.add(quad);
+            }
+        }
+        return model;
+    }
+
+    public static Model triangle() {
+        // One counter-clockwise triangle around the origin in the z = 0 plane.
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-1, -1, 0));
+        model.vertices.add(new Vector3f(1, -1, 0));
+        model.vertices.add(new Vector3f(0, 1, 0));
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(Arrays.asList(0, 1, 2)));
+        model.polygons.add(polygon);
+        return model;
+    }
+}
@@ -0,0 +1,144 @@
+package com.cgvsu.model;
+
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModelSimplifierTest {
+
+    @Test
+    public void simplifiedSphereStaysOnItsSurface() {
+        Model sphere = sphere(32, 64, 10.0f);
+        int triangles = ModelSimplifier.countTriangles(sphere);
+
+        Model simplified = ModelSimplifier.simplify(sphere, triangles / 4);
+
+        assertTrue(simplified.polygons.size() <= triangles / 4);
+        assertTrue(simplified.polygons.size() > triangles / 8);
+        for (Vector3f vertex : simplified.vertices) {
+            assertEquals(10.0f, vertex.length(), 0.5f);
+        }
+        // Smooth normals are rebuilt for the new geometry, and texture corners keep their coordinates.
+        assertEquals(simplified.vertices.size(), simplified.normals.size());
+        assertEquals(sphere.textureVertices.size(), simplified.textureVertices.size());
+        assertEquals(3, simplified.polygons.get(0).getTextureVertexIndices().size());
+    }
+
+    @Test
+    public void flatGridKeepsItsPlaneAndOutline() {
+        Model grid = MeshFixtures.grid(20);
+
+        Model simplified = ModelSimplifier.simplify(grid, 50);
+
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (Vector3f vertex : simplified.vertices) {
+            assertEquals(0.0f, vertex.getZ(), 1e-5f);
+            minX = Math.min(minX, vertex.getX());
+            maxX = Math.max(maxX, vertex.getX());
+            minY = Math.min(minY, vertex.getY());
+            maxY = Math.max(maxY, vertex.getY());
+        }
+        assertEquals(0.0f, minX, 1e-4f);
+        assertEquals(20.0f, maxX, 1e-4f);
+        assertEquals(0.0f, minY, 1e-4f);
+        assertEquals(20.0f, maxY, 1e-4f);
+        assertTrue(simplified.polygons.size() <= 50);
+    }
+
+    @Test
+    public void buildsLevelsFromFinestToCoarsest() {
+        Model sphere = sphere(32, 64, 1.0f);
+
+        List<Model> levels = ModelSimplifier.buildLevels(sphere);
+
+        assertFalse(levels.isEmpty());
+        int previous = ModelSimplifier.countTriangles(sphere);
+        for (Model level : levels) {
+            assertTrue(level.polygons.size() <= previous / 2);
+            assertTrue(level.polygons.size() >= ModelSimplifier.MIN_LEVEL_TRIANGLES / 2);
+            previous = level.polygons.size();
+        }
+    }
+
+    @Test
+    public void smallModelsGetNoLevels() {
+        assertTrue(ModelSimplifier.buildLevels(MeshFixtures.grid(4)).isEmpty());
+    }
+
+    @Test
+    public void levelsOfOlderGeometryAreIgnored() {
+        Model model = MeshFixtures.grid(20);
+        model.setLevelsOfDetail(ModelSimplifier.buildLevels(model), model.getVersion());
+        assertFalse(model.getLevelsOfDetail().isEmpty());
+
+        model.markModified();
+
+        assertTrue(model.getLevelsOfDetail().isEmpty());
+    }
+
+    @Test
+    public void rejectsNegativeTarget() {
+        assertThrows(IllegalArgumentException.class, () -> ModelSimplifier.simplify(MeshFixtures.grid(2), -1));
+    }
+
+    private static Model sphere(int rings, int segments, float radius) {
+        // Rings x segments grid wrapped around a sphere; the poles are single vertices.
+        Model model = new Model();
+        model.vertices.add(new Vector3f(0, radius, 0));
+        for (int ring = 1; ring < rings; ring++) {
+            double theta = Math.PI * ring / rings;
+            for (int segment = 0; segment < segments; segment++) {
+                double phi = 2 * Math.PI * segment / segments;
+                model.vertices.add(new Vector3f(
+                        (float) (radius * Math.sin(theta) * Math.cos(phi)),
+                        (float) (radius * Math.cos(theta)),
+                        (float) (radius * Math.sin(theta) * Math.sin(phi))));
+                model.textureVertices.add(new Vector2f((float) segment / segments, (float) ring / rings));
+            }
+        }
+        int south = model.vertices.size();
+        model.vertices.add(new Vector3f(0, -radius, 0));
+        model.normals.add(new Vector3f(0, 1, 0));
+
+        for (int ring = 0; ring < rings; ring++) {
+            for (int segment = 0; segment < segments; segment++) {
+                int next = (segment + 1) % segments;
+                int top = ring - 1;
+                int a = ring == 0 ? 0 : 1 + top * segments + segment;
+                int b = ring == 0 ? 0 : 1 + top * segments + next;
+                int c = ring == rings - 1 ? south : 1 + ring * segments + next;
+                int d = ring == rings - 1 ? south : 1 + ring * segments + segment;
+                if (ring != 0) {
+                    addTriangle(model, a, b, c);
+                }
+                if (ring != rings - 1) {
+                    addTriangle(model, a, c, d);
+                }
+            }
+        }
+        return model;
+    }
+
+    private static void addTriangle(Model model, int a, int b, int c) {
+        Polygon triangle = new Polygon();
+        triangle.setVertexIndices(new ArrayList<>(Arrays.asList(a, b, c)));
+        // Texture indices follow the vertex indices; the poles reuse the first coordinate.
+        triangle.setTextureVertexIndices(new ArrayList<>(Arrays.asList(
+                Math.max(0, Math.min(a - 1, model.textureVertices.size() - 1)),
+                Math.max(0, Math.min(b - 1, model.textureVertices.size() - 1)),
+                Math.max(0, Math.min(c - 1, model.textureVertices.size() - 1)))));
+        model.polygons.add(triangle);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cgvsu.profiling;
+
+import com.cgvsu.math.NormalsCalculator;
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.ModelTriangulator;
+import com.cgvsu.objreader.ObjReader;
+import com.cgvsu.objwriter.ObjWriter;
+import com.cgvsu.render_engine.ArrayTextureSampler;
+import com.cgvsu.render_engine.Camera;
+import com.cgvsu.render_engine.MipmapTexture;
+import com.cgvsu.render_engine.OffscreenRenderer;
+import com.cgvsu.render_engine.RenderSettings;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProfilingEventsTest {
+
+    @Test
+    public void operationsEmitEvents(@TempDir Path directory) throws IOException {
+        Path output = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("com.cgvsu.ObjRead", "com.cgvsu.ObjWrite", "com.cgvsu.Triangulate",
+                    "com.cgvsu.RecalculateNormals", "com.cgvsu.TextureLoad", "com.cgvsu.Frame",
+                    "com.cgvsu.FramePresent")) {
+                recording.enable(name);
+            }
+            recording.start();
+
+            Model model = ObjReader.read("v -1 -1 0\nv 1 -1 0\nv 1 1 0\nv -1 1 0\nf 1 2 3 4\n");
+            ModelTriangulator.triangulate(model);
+            NormalsCalculator.recalculateNormals(model);
+            ObjWriter.write(model, directory.resolve("quad.obj"));
+            MipmapTexture.build(new ArrayTextureSampler(new int[16], 4, 4), "test");
+            Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+            // A direct buffer has no array to draw into, so the frame is copied and the copy is the present.
+            new OffscreenRenderer().render(camera, List.of(model), null,
+                    new RenderSettings(false, false, true, 0xFFB0B0B0), 16, 16,
+                    ByteBuffer.allocateDirect(256 * Integer.BYTES).asIntBuffer());
+
+            recording.stop();
+            recording.dump(output);
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(output).stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+        assertEquals(4, events.get("com.cgvsu.ObjRead").get(0).getInt("vertices"));
+        assertEquals(1, events.get("com.cgvsu.ObjRead").get(0).getInt("polygons"));
+        assertEquals(2, events.get("com.cgvsu.Triangulate").get(0).getInt("triangles"));
+        assertEquals(4, events.get("com.cgvsu.RecalculateNormals").get(0).getInt("vertices"));
+        assertEquals(2, events.get("com.cgvsu.ObjWrite").get(0).getInt("polygons"));
+        List<String> stages = events.get("com.cgvsu.TextureLoad").stream()
+                .map(event -> event.getString("stage"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("mipmap"), stages);
+        assertEquals("test", events.get("com.cgvsu.TextureLoad").get(0).getString("source"));
+        RecordedEvent frame = events.get("com.cgvsu.Frame").get(0);
+        assertEquals(16, frame.getInt("width"));
+        assertEquals(2, frame.getLong("triangles"));
+        assertTrue(frame.getLong("pixelsWritten") > 0);
+        assertEquals(16, events.get("com.cgvsu.FramePresent").get(0).getInt("height"));
+    }
+}
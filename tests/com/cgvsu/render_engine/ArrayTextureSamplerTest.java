@@ -0,0 +1,138 @@
+package com.cgvsu.render_engine;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritablePixelFormat;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArrayTextureSamplerTest {
+
+    @Test
+    public void samplesTheNearestTexelClampedToTheEdge() {
+        // 4x3 texture whose texel at row y, column x holds y * 4 + x; v = 1 is the top row.
+        int[] pixels = new int[12];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = i;
+        }
+        TextureSampler sampler = new ArrayTextureSampler(pixels, 4, 3);
+
+        assertEquals(0, sampler.sample(0.0f, 1.0f));
+        assertEquals(3, sampler.sample(1.0f, 1.0f));
+        assertEquals(8, sampler.sample(0.0f, 0.0f));
+        assertEquals(11, sampler.sample(1.0f, 0.0f));
+        // u = 0.5 is column 1.5, rounded up to 2; v = 0.5 is row 1.
+        assertEquals(6, sampler.sample(0.5f, 0.5f));
+        // u = 0.33 is column 0.99; v = 0.77 is row 0.46.
+        assertEquals(1, sampler.sample(0.33f, 0.77f));
+        // u = 0.999 is column 2.997; v = 0.1 is row 1.8.
+        assertEquals(11, sampler.sample(0.999f, 0.1f));
+        // Out of range coordinates clamp to the edge texels.
+        assertEquals(8, sampler.sample(-0.5f, -0.5f));
+        assertEquals(3, sampler.sample(1.5f, 1.5f));
+        // NaN rounds to texel 0 on both axes.
+        assertEquals(0, sampler.sample(Float.NaN, Float.NaN));
+    }
+
+    @Test
+    public void singleTexelTextureSamplesItEverywhere() {
+        TextureSampler sampler = new ArrayTextureSampler(new int[] {0xFF336699}, 1, 1);
+        assertEquals(0xFF336699, sampler.sample(0.0f, 0.0f));
+        assertEquals(0xFF336699, sampler.sample(0.7f, 0.2f));
+        assertEquals(0xFF336699, sampler.sample(2.0f, -1.0f));
+    }
+
+    @Test
+    public void unpacksPixelsAsNonPremultipliedArgb() {
+        // 3x2 source, read through a hand-built reader so the test needs no JavaFX image or toolkit.
+        int[] source = {
+                0xFFFF0000, 0x8000FF00, 0x00000000,
+                0xFF0000FF, 0x40FFFFFF, 0xFF123456};
+        PixelReader reader = new ArrayPixelReader(source, 3);
+
+        ArrayTextureSampler sampler = ArrayTextureSampler.fromPixelReader(reader, 3, 2, null);
+
+        assertEquals(3, sampler.getWidth());
+        assertEquals(2, sampler.getHeight());
+        for (int i = 0; i < source.length; i++) {
+            assertEquals(source[i], sampler.getPixels()[i], "texel " + i);
+        }
+        // Translucent texels keep their color channels: they are not premultiplied.
+        assertEquals(0x8000FF00, sampler.sample(0.5f, 1.0f));
+        assertEquals(0x40FFFFFF, sampler.sample(0.5f, 0.0f));
+    }
+
+    @Test
+    public void missingReaderGivesAnEmptyTexture() {
+        ArrayTextureSampler sampler = ArrayTextureSampler.fromPixelReader(null, 4, 4, null);
+        assertEquals(0, sampler.getWidth());
+        assertEquals(0xFFFFFFFF, sampler.sample(0.5f, 0.5f));
+    }
+
+    @Test
+    public void emptyTextureSamplesWhite() {
+        assertEquals(0xFFFFFFFF, new ArrayTextureSampler(new int[0], 0, 0).sample(0.5f, 0.5f));
+    }
+
+    @Test
+    public void rejectsTooSmallPixelArray() {
+        assertThrows(IllegalArgumentException.class, () -> new ArrayTextureSampler(new int[3], 2, 2));
+    }
+
+    private static final class ArrayPixelReader implements PixelReader {
+        // Serves only the int ARGB bulk read the sampler uses, and checks that it asks for that format.
+        private final int[] argb;
+        private final int width;
+
+        private ArrayPixelReader(int[] argb, int width) {
+            this.argb = argb;
+            this.width = width;
+        }
+
+        @Override
+        public void getPixels(
+                int x, int y, int w, int h, WritablePixelFormat<IntBuffer> pixelformat,
+                int[] buffer, int offset, int scanlineStride) {
+            assertSame(PixelFormat.getIntArgbInstance(), pixelformat);
+            for (int row = 0; row < h; row++) {
+                System.arraycopy(argb, (y + row) * width + x, buffer, offset + row * scanlineStride, w);
+            }
+        }
+
+        @Override
+        public PixelFormat<?> getPixelFormat() {
+            return PixelFormat.getIntArgbInstance();
+        }
+
+        @Override
+        public int getArgb(int x, int y) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Color getColor(int x, int y) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends Buffer> void getPixels(
+                int x, int y, int w, int h, WritablePixelFormat<T> pixelformat, T buffer, int scanlineStride) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void getPixels(
+                int x, int y, int w, int h, WritablePixelFormat<ByteBuffer> pixelformat,
+                byte[] buffer, int offset, int scanlineStride) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -32,4 +32,15 @@ class CameraTest {
         Assertions.assertEquals(0.5f, camera.getNearPlane(), 1e-4);
         Assertions.assertEquals(50f, camera.getFarPlane(), 1e-4);
     }
+
+    @Test
+    void testVersionTracksViewChanges() {
+        Camera camera = new Camera(new Vector3f(0, 0, 0), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        long version = camera.getVersion();
+        camera.setAspectRatio(1.0f);
+        Assertions.assertEquals(version, camera.getVersion());
+        camera.setAspectRatio(2.0f);
+        camera.movePosition(new Vector3f(1, 0, 0));
+        Assertions.assertEquals(version + 2, camera.getVersion());
+    }
 }
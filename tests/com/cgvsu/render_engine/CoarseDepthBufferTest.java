@@ -0,0 +1,69 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoarseDepthBufferTest {
+
+    @Test
+    public void blockIsOccludedOnceFullyCoveredByNearerSurface() {
+        int width = 16;
+        int height = 16;
+        int[] colorBuffer = new int[width * height];
+        float[] depthBuffer = new float[width * height];
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, 0xFF000000);
+        CoarseDepthBuffer coarseDepth = new CoarseDepthBuffer();
+        coarseDepth.resize(width, height);
+        coarseDepth.clear();
+        assertFalse(coarseDepth.isOccluded(0, 0, 0.9f));
+
+        // Two triangles covering the whole buffer at depth 0.3.
+        rasterize(0, 0, 16, 0, 16, 16, 0.3f, 0xFFFF0000, colorBuffer, depthBuffer, coarseDepth);
+        rasterize(0, 0, 16, 16, 0, 16, 0.3f, 0xFFFF0000, colorBuffer, depthBuffer, coarseDepth);
+        assertTrue(coarseDepth.isOccluded(0, 0, 0.5f));
+        assertTrue(coarseDepth.isOccluded(1, 1, 0.5f));
+        assertFalse(coarseDepth.isOccluded(1, 1, 0.2f));
+
+        // A farther triangle is rejected and leaves the buffers untouched.
+        rasterize(0, 0, 16, 0, 16, 16, 0.5f, 0xFF00FF00, colorBuffer, depthBuffer, coarseDepth);
+        assertEquals(0xFFFF0000, colorBuffer[5 * width + 10]);
+        assertEquals(0.3f, depthBuffer[5 * width + 10], 1e-6f);
+    }
+
+    @Test
+    public void blockMaxDropsOnlyOnceItsFarthestPixelIsOverwritten() {
+        int width = 16;
+        int height = 16;
+        int[] colorBuffer = new int[width * height];
+        float[] depthBuffer = new float[width * height];
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, 0xFF000000);
+        CoarseDepthBuffer coarseDepth = new CoarseDepthBuffer();
+        coarseDepth.resize(width, height);
+        coarseDepth.clear();
+        rasterize(0, 0, 16, 0, 16, 16, 0.5f, 0xFFFF0000, colorBuffer, depthBuffer, coarseDepth);
+        rasterize(0, 0, 16, 16, 0, 16, 0.5f, 0xFFFF0000, colorBuffer, depthBuffer, coarseDepth);
+        assertTrue(coarseDepth.isOccluded(0, 0, 0.6f));
+
+        // The upper right half of block (0, 0) comes nearer; the lower left half still holds 0.5.
+        rasterize(0, 0, 8, 0, 8, 8, 0.3f, 0xFF00FF00, colorBuffer, depthBuffer, coarseDepth);
+        assertFalse(coarseDepth.isOccluded(0, 0, 0.4f));
+
+        rasterize(0, 0, 8, 8, 0, 8, 0.3f, 0xFF00FF00, colorBuffer, depthBuffer, coarseDepth);
+        assertTrue(coarseDepth.isOccluded(0, 0, 0.4f));
+        assertFalse(coarseDepth.isOccluded(1, 0, 0.4f));
+    }
+
+    private static void rasterize(
+            float ax, float ay, float bx, float by, float cx, float cy, float z, int color,
+            int[] colorBuffer, float[] depthBuffer, CoarseDepthBuffer coarseDepth) {
+        Rasterizer.rasterizeTriangle(
+                new Rasterizer.Vertex(ax, ay, z, new Vector3f(), null, null),
+                new Rasterizer.Vertex(bx, by, z, new Vector3f(), null, null),
+                new Rasterizer.Vertex(cx, cy, z, new Vector3f(), null, null),
+                16, 16, colorBuffer, depthBuffer, color, null, null, coarseDepth, null, DepthPass.SINGLE, false, 0, 0, 15, 15);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CullModeTest {
+
+    @Test
+    public void counterClockwiseTriangleFacingCameraIsFront() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        Matrix4 mvp = camera.getProjectionMatrix().mult(camera.getViewMatrix());
+        Vector2f a = project(mvp, new Vector3f(0, 0, 0));
+        Vector2f b = project(mvp, new Vector3f(1, 0, 0));
+        Vector2f c = project(mvp, new Vector3f(0, 1, 0));
+
+        long front = Rasterizer.signedArea(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY());
+        long back = Rasterizer.signedArea(a.getX(), a.getY(), c.getX(), c.getY(), b.getX(), b.getY());
+
+        assertFalse(CullMode.BACK.culls(front));
+        assertTrue(CullMode.BACK.culls(back));
+        assertTrue(CullMode.FRONT.culls(front));
+        assertFalse(CullMode.FRONT.culls(back));
+        assertFalse(CullMode.NONE.culls(front));
+        assertFalse(CullMode.NONE.culls(back));
+    }
+
+    private static Vector2f project(Matrix4 mvp, Vector3f vertex) {
+        return GraphicConveyor.vertexToPoint(GraphicConveyor.transformToNdc(mvp, vertex), 100, 100);
+    }
+}
@@ -0,0 +1,119 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeferredLightingTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+
+    @Test
+    public void unlitTexturedOutputMatchesForwardShading() {
+        TextureSampler checker = (u, v) -> ((int) (u * 8) + (int) (v * 8)) % 2 == 0 ? 0xFFFFFFFF : 0xFF336699;
+        int[][] results = renderBothWays(checker, null);
+        assertArrayEquals(results[0], results[1]);
+    }
+
+    @Test
+    public void litOutputMatchesForwardShadingClosely() {
+        int[][] results = renderBothWays(null, new Vector3f(2, 3, 6));
+        for (int i = 0; i < results[0].length; i++) {
+            for (int shift = 0; shift <= 24; shift += 8) {
+                int forward = (results[0][i] >> shift) & 0xFF;
+                int deferred = (results[1][i] >> shift) & 0xFF;
+                assertEquals(forward, deferred, 3, "pixel " + i);
+            }
+        }
+    }
+
+    @Test
+    public void translucentTexelsAreWrittenOpaque() {
+        int[][] results = renderBothWays((u, v) -> 0x80FF4020, null);
+        for (int[] result : results) {
+            int covered = 0;
+            for (int color : result) {
+                if (color != 0xFF000000) {
+                    assertEquals(0xFFFF4020, color);
+                    covered++;
+                }
+            }
+            assertTrue(covered > 0);
+        }
+    }
+
+    @Test
+    public void mipmappedTextureUsesTheTriangleLevel() {
+        // A one-texel checker shrunk to a few dozen pixels: every level past the first is uniform grey, while the
+        // finest level alone would alias to a mix of white, black and bilinear in-betweens.
+        int size = 256;
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                pixels[y * size + x] = ((x + y) & 1) == 0 ? 0xFFFFFFFF : 0xFF000000;
+            }
+        }
+        int[][] results = renderBothWays(new MipmapTexture(pixels, size, size), null);
+        assertArrayEquals(results[0], results[1]);
+        int covered = 0;
+        for (int color : results[1]) {
+            if (color != 0xFF000000) {
+                assertEquals(0xFF808080, color);
+                covered++;
+            }
+        }
+        assertTrue(covered > 0);
+    }
+
+    private static int[][] renderBothWays(TextureSampler sampler, Vector3f lightPos) {
+        Camera camera = new Camera(new Vector3f(0.5f, 0.5f, 4), new Vector3f(0, 0, 0), 1.0f,
+                (float) WIDTH / HEIGHT, 0.1f, 100f);
+        Matrix4 viewProjection = camera.getProjectionMatrix().mult(camera.getViewMatrix());
+        Vector3f normal = new Vector3f(0.2f, 0.1f, 1).normalize();
+        Rasterizer.Vertex[] triangles = {
+                vertex(viewProjection, new Vector3f(-1, -1, 0), normal, new Vector2f(0, 0)),
+                vertex(viewProjection, new Vector3f(1, -1, 0.3f), normal, new Vector2f(1, 0)),
+                vertex(viewProjection, new Vector3f(1, 1, 0), normal, new Vector2f(1, 1)),
+                vertex(viewProjection, new Vector3f(-1, -1, 0), normal, new Vector2f(0, 0)),
+                vertex(viewProjection, new Vector3f(1, 1, 0), normal, new Vector2f(1, 1)),
+                vertex(viewProjection, new Vector3f(-1, 1, -0.2f), normal, new Vector2f(0, 1)),
+        };
+
+        int[] forwardColor = new int[WIDTH * HEIGHT];
+        float[] forwardDepth = new float[WIDTH * HEIGHT];
+        Rasterizer.clearBuffers(WIDTH, HEIGHT, forwardColor, forwardDepth, 0xFF000000);
+        for (int i = 0; i < triangles.length; i += 3) {
+            Rasterizer.rasterizeTriangle(
+                    triangles[i], triangles[i + 1], triangles[i + 2], WIDTH, HEIGHT,
+                    forwardColor, forwardDepth, 0xFFB0B0B0, sampler, lightPos);
+        }
+
+        FrameBuffer frameBuffer = new FrameBuffer(WIDTH, HEIGHT);
+        frameBuffer.clear(0xFF000000);
+        GBuffer gBuffer = frameBuffer.getGBuffer();
+        for (int i = 0; i < triangles.length; i += 3) {
+            Rasterizer.rasterizeTriangle(
+                    triangles[i], triangles[i + 1], triangles[i + 2], WIDTH, HEIGHT,
+                    frameBuffer.getColorBuffer(), frameBuffer.getDepthBuffer(), 0xFFB0B0B0, sampler, lightPos,
+                    null, gBuffer, DepthPass.GEOMETRY, false, 0, 0, WIDTH - 1, HEIGHT - 1);
+        }
+        new DeferredLighting(
+                gBuffer, frameBuffer.getDepthBuffer(), frameBuffer.getColorBuffer(), viewProjection,
+                sampler, lightPos, 0xFFB0B0B0).shade();
+
+        assertArrayEquals(forwardDepth, frameBuffer.getDepthBuffer());
+        return new int[][] {forwardColor, frameBuffer.getColorBuffer()};
+    }
+
+    private static Rasterizer.Vertex vertex(Matrix4 viewProjection, Vector3f position, Vector3f normal, Vector2f uv) {
+        Vector3f ndc = GraphicConveyor.transformToNdc(viewProjection, position);
+        Vector2f point = GraphicConveyor.vertexToPoint(ndc, WIDTH, HEIGHT);
+        return new Rasterizer.Vertex(point.getX(), point.getY(), ndc.getZ(), position, normal, uv);
+    }
+}
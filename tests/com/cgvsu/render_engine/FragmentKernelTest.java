@@ -0,0 +1,94 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FragmentKernelTest {
+
+    private static final TextureSampler WHITE = (u, v) -> 0xFFFFFFFF;
+    private static final Vector3f LIGHT = new Vector3f(0, 0, 5);
+
+    @Test
+    public void selectsKernelByStateAndAttributes() {
+        Rasterizer.Vertex[] full = triangle(new Vector3f(0, 0, 1), new Vector2f(0, 0));
+        Rasterizer.Vertex[] bare = triangle(null, null);
+
+        assertInstanceOf(FragmentKernel.TexturedLit.class, select(full, DepthPass.SINGLE, WHITE, LIGHT));
+        assertInstanceOf(FragmentKernel.Textured.class, select(full, DepthPass.SINGLE, WHITE, null));
+        assertInstanceOf(FragmentKernel.Lit.class, select(full, DepthPass.SHADE_EQUAL, null, LIGHT));
+        assertInstanceOf(FragmentKernel.Flat.class, select(full, DepthPass.SINGLE, null, null));
+        // Enabled settings fall back to the flat kernel when the mesh lacks the attributes.
+        assertInstanceOf(FragmentKernel.Flat.class, select(bare, DepthPass.SINGLE, WHITE, LIGHT));
+        assertNull(select(full, DepthPass.DEPTH_ONLY, WHITE, LIGHT));
+    }
+
+    @Test
+    public void shadeEqualPassKeepsStoredDepth() {
+        int[] color = new int[1];
+        float[] depth = {0.5f};
+        FragmentKernel kernel = select(triangle(null, null), DepthPass.SHADE_EQUAL, null, null, color, depth);
+        kernel.write(0, 1, 0, 0, 0.25f);
+        assertEquals(0xFF808080, color[0]);
+        assertEquals(0.5f, depth[0], 0.0f);
+    }
+
+    @Test
+    public void cacheRebindsTheSameKernelPerTriangle() {
+        FragmentKernel.Cache cache = new FragmentKernel.Cache();
+        Rasterizer.Vertex[] triangle = triangle(null, null);
+        int[] first = new int[1];
+        int[] second = new int[1];
+        FragmentKernel kernel = FragmentKernel.select(
+                triangle[0], triangle[1], triangle[2], first, new float[1], null, DepthPass.SINGLE, 0xFF808080,
+                null, null, cache);
+        assertSame(kernel, FragmentKernel.select(
+                triangle[0], triangle[1], triangle[2], second, new float[1], null, DepthPass.SINGLE, 0xFF404040,
+                null, null, cache));
+        kernel.write(0, 1, 0, 0, 0.25f);
+        assertEquals(0, first[0]);
+        assertEquals(0xFF404040, second[0]);
+    }
+
+    @Test
+    public void overloadsWithoutCacheUseOnePerThread() throws InterruptedException {
+        FragmentKernel.Cache[] other = new FragmentKernel.Cache[1];
+        Thread thread = new Thread(() -> other[0] = Rasterizer.threadKernels());
+        thread.start();
+        thread.join();
+
+        assertSame(Rasterizer.threadKernels(), Rasterizer.threadKernels());
+        assertNotSame(Rasterizer.threadKernels(), other[0]);
+    }
+
+    private static FragmentKernel select(
+            Rasterizer.Vertex[] triangle, DepthPass pass, TextureSampler sampler, Vector3f lightPos) {
+        return select(triangle, pass, sampler, lightPos, new int[1], new float[1]);
+    }
+
+    private static FragmentKernel select(
+            Rasterizer.Vertex[] triangle,
+            DepthPass pass,
+            TextureSampler sampler,
+            Vector3f lightPos,
+            int[] color,
+            float[] depth) {
+        return FragmentKernel.select(
+                triangle[0], triangle[1], triangle[2], color, depth, null, pass, 0xFF808080, sampler, lightPos,
+                new FragmentKernel.Cache());
+    }
+
+    private static Rasterizer.Vertex[] triangle(Vector3f normal, Vector2f uv) {
+        return new Rasterizer.Vertex[] {
+                new Rasterizer.Vertex(0, 0, 0.5f, new Vector3f(), normal, uv),
+                new Rasterizer.Vertex(4, 0, 0.5f, new Vector3f(), normal, uv),
+                new Rasterizer.Vertex(4, 4, 0.5f, new Vector3f(), normal, uv)
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameBufferTest {
+
+    @Test
+    public void resizeToSameSizeReusesBuffers() {
+        FrameBuffer frameBuffer = new FrameBuffer(8, 4);
+        int[] color = frameBuffer.getColorBuffer();
+        float[] depth = frameBuffer.getDepthBuffer();
+        long allocations = frameBuffer.getAllocationCount();
+        long bytes = frameBuffer.getAllocatedBytes();
+
+        for (int frame = 0; frame < 10; frame++) {
+            assertFalse(frameBuffer.resize(8, 4));
+            frameBuffer.clear(0xFF000000);
+        }
+
+        assertSame(color, frameBuffer.getColorBuffer());
+        assertSame(depth, frameBuffer.getDepthBuffer());
+        assertEquals(allocations, frameBuffer.getAllocationCount());
+        assertEquals(bytes, frameBuffer.getAllocatedBytes());
+    }
+
+    @Test
+    public void resizeToNewSizeReallocates() {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        assertTrue(frameBuffer.resize(3, 2));
+        assertEquals(6, frameBuffer.getColorBuffer().length);
+        assertEquals(6, frameBuffer.getDepthBuffer().length);
+        assertEquals(1, frameBuffer.getAllocationCount());
+        // Color and depth per pixel plus a single coarse depth block: its max and where that max is.
+        assertEquals(6L * (Integer.BYTES + Float.BYTES) + Float.BYTES + Integer.BYTES,
+                frameBuffer.getAllocatedBytes());
+
+        assertTrue(frameBuffer.resize(2, 3));
+        assertEquals(2, frameBuffer.getAllocationCount());
+    }
+
+    @Test
+    public void clearFillsColorAndResetsDepth() {
+        FrameBuffer frameBuffer = new FrameBuffer(2, 2);
+        frameBuffer.getDepthBuffer()[1] = 0.5f;
+        frameBuffer.clear(0xFF123456);
+        assertEquals(0xFF123456, frameBuffer.getColorBuffer()[3]);
+        assertEquals(Float.POSITIVE_INFINITY, frameBuffer.getDepthBuffer()[1]);
+    }
+
+    @Test
+    public void presentedRegionCoversOldAndNewDrawing() {
+        FrameBuffer frameBuffer = new FrameBuffer(16, 16);
+        DirtyRegion first = frameBuffer.markPresented();
+        assertEquals(16, first.getWidth());
+        assertEquals(16, first.getHeight());
+        assertTrue(frameBuffer.markPresented().isEmpty());
+
+        frameBuffer.clear(0xFF000000);
+        frameBuffer.getDrawnRegion().include(2, 3, 4, 5, 16, 16);
+        frameBuffer.markPresented();
+        // The next frame draws elsewhere; the clear must still refresh the area of the previous drawing.
+        frameBuffer.clear(0xFF000000);
+        frameBuffer.getDrawnRegion().include(10, 10, 20, 11, 16, 16);
+        DirtyRegion changed = frameBuffer.markPresented();
+        assertEquals(2, changed.getMinX());
+        assertEquals(3, changed.getMinY());
+        assertEquals(14, changed.getWidth());
+        assertEquals(9, changed.getHeight());
+    }
+
+    @Test
+    public void negativeSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameBuffer(-1, 2));
+    }
+}
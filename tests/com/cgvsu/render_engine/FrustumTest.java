@@ -0,0 +1,38 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.BoundingSphere;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrustumTest {
+
+    @Test
+    public void spheresOutsideAnyPlaneAreRejected() {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        Frustum frustum = new Frustum(camera.getProjectionMatrix().mult(camera.getViewMatrix()));
+
+        assertTrue(frustum.intersects(new BoundingSphere(0, 0, 0, 1)));
+        // Behind the camera, beyond the far plane, and far off to the side.
+        assertFalse(frustum.intersects(new BoundingSphere(0, 0, 20, 1)));
+        assertFalse(frustum.intersects(new BoundingSphere(0, 0, -200, 1)));
+        assertFalse(frustum.intersects(new BoundingSphere(100, 0, 0, 1)));
+        // Straddling the left plane still counts as visible.
+        assertTrue(frustum.intersects(new BoundingSphere(-5.5f, 0, 0, 1)));
+        assertFalse(frustum.intersects(null));
+    }
+
+    @Test
+    public void modelMatrixMovesPlanesIntoModelSpace() {
+        Camera camera = new Camera(new Vector3f(0, 0, 10), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        Matrix4 model = GraphicConveyor.rotateScaleTranslate(
+                new Vector3f(100, 0, 0), new Vector3f(), new Vector3f(1, 1, 1));
+        Frustum frustum = new Frustum(camera.getProjectionMatrix().mult(camera.getViewMatrix()).mult(model));
+
+        assertFalse(frustum.intersects(new BoundingSphere(0, 0, 0, 1)));
+        assertTrue(frustum.intersects(new BoundingSphere(-100, 0, 0, 1)));
+    }
+}
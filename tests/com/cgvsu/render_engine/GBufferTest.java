@@ -0,0 +1,37 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GBufferTest {
+
+    @Test
+    public void packedNormalsRoundTrip() {
+        Random random = new Random(3);
+        float[] decoded = new float[3];
+        for (int i = 0; i < 1000; i++) {
+            Vector3f normal = new Vector3f(
+                    random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1).normalize();
+            GBuffer.unpackNormal(GBuffer.packNormal(normal.getX(), normal.getY(), normal.getZ()), decoded);
+            assertEquals(normal.getX(), decoded[0], 1e-3f);
+            assertEquals(normal.getY(), decoded[1], 1e-3f);
+            assertEquals(normal.getZ(), decoded[2], 1e-3f);
+        }
+    }
+
+    @Test
+    public void frameBufferAllocatesGBufferOnDemand() {
+        FrameBuffer frameBuffer = new FrameBuffer(4, 4);
+        long bytes = frameBuffer.getAllocatedBytes();
+        GBuffer gBuffer = frameBuffer.getGBuffer();
+        assertEquals(16, gBuffer.getMaterials().length);
+        assertEquals(bytes + 16L * (Integer.BYTES + Float.BYTES * 2 + Byte.BYTES + Short.BYTES), frameBuffer.getAllocatedBytes());
+
+        frameBuffer.resize(2, 2);
+        assertEquals(4, frameBuffer.getGBuffer().getNormals().length);
+    }
+}
@@ -0,0 +1,123 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MipmapTextureTest {
+
+    @Test
+    public void buildsLevelsDownToOneTexel() {
+        MipmapTexture texture = new MipmapTexture(new int[16 * 8], 16, 8);
+        assertEquals(5, texture.getLevelCount());
+    }
+
+    @Test
+    public void tiledLevelKeepsEveryTexel() {
+        int width = 13;
+        int height = 11;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | i;
+        }
+        MipmapTexture texture = new MipmapTexture(pixels, width, height);
+        assertEquals(0, texture.mipLevel(0.0f, 0.0f, 0.0f, 0.0f));
+        MipmapTexture.Level base = texture.getLevel(0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(pixels[y * width + x], base.texel(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void oddSizeKeepsTheLastColumnAndRow() {
+        // 5x5 to 2x2: each output covers two and a half texels per axis, so the last column and row, and the
+        // middle ones by half, count towards the outputs they fall in.
+        int size = 5;
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int red = x == size - 1 ? 0xFF : 0;
+                int blue = y == size - 1 ? 0xFF : 0;
+                pixels[y * size + x] = 0xFF000000 | (red << 16) | blue;
+            }
+        }
+        MipmapTexture texture = new MipmapTexture(pixels, size, size);
+        assertEquals(1 << MipmapTexture.BLEND_BITS, texture.mipLevel(2.0f / size, 0.0f, 0.0f, 2.0f / size));
+        MipmapTexture.Level level = texture.getLevel(1);
+        assertEquals(2, level.getWidth());
+        // 255 * 1 / 2.5 rounds to 102.
+        assertEquals(0xFF000000, level.texel(0, 0));
+        assertEquals(0xFF660000, level.texel(1, 0));
+        assertEquals(0xFF000066, level.texel(0, 1));
+        assertEquals(0xFF660066, level.texel(1, 1));
+    }
+
+    @Test
+    public void oddSizeAveragesEveryTexelIntoOne() {
+        // 3x1 to 1x1 weighs all three texels equally.
+        MipmapTexture texture = new MipmapTexture(new int[] {0xFF000000, 0xFF000000, 0xFFFFFFFF}, 3, 1);
+        assertEquals(1 << MipmapTexture.BLEND_BITS, texture.mipLevel(1.0f, 0.0f, 0.0f, 0.0f));
+        MipmapTexture.Level level = texture.getLevel(1);
+        assertEquals(1, level.getWidth());
+        assertEquals(0xFF555555, level.texel(0, 0));
+    }
+
+    @Test
+    public void levelFollowsTexelsPerPixel() {
+        MipmapTexture texture = new MipmapTexture(new int[256 * 256], 256, 256);
+        assertEquals(0.0f, texture.levelOfDetail(1.0f / 256, 0.0f, 0.0f, 1.0f / 256), 1e-5f);
+        assertEquals(2.0f, texture.levelOfDetail(4.0f / 256, 0.0f, 0.0f, 1.0f / 256), 1e-5f);
+        assertEquals(3.0f, texture.levelOfDetail(0.0f, 0.0f, 0.0f, 8.0f / 256), 1e-5f);
+    }
+
+    @Test
+    public void minifiedCheckerboardAveragesToGrey() {
+        int size = 64;
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                pixels[y * size + x] = ((x + y) & 1) == 0 ? 0xFFFFFFFF : 0xFF000000;
+            }
+        }
+        MipmapTexture texture = new MipmapTexture(pixels, size, size);
+
+        // Eight texels per pixel: level 3, where every texel is the average of the checker.
+        int far = texture.mipLevel(8.0f / size, 0.0f, 0.0f, 8.0f / size);
+        assertEquals(3 << MipmapTexture.BLEND_BITS, far);
+        assertEquals(0xFF808080, texture.sample(0.3f, 0.7f, far));
+        // Magnified or unminified triangles read the full-resolution level.
+        int near = texture.mipLevel(0.1f / size, 0.0f, 0.0f, 0.1f / size);
+        assertEquals(0, near);
+        assertEquals(0xFFFFFFFF, texture.sample(0.0f, 1.0f, near));
+    }
+
+    @Test
+    public void trilinearBlendsNeighbouringLevels() {
+        // Left half white, right half black: at u = 1/3 level 0 is still white while level 1 is already grey.
+        int white = 0xFFFFFFFF;
+        int black = 0xFF000000;
+        MipmapTexture texture = new MipmapTexture(new int[] {
+                white, white, black, black,
+                white, white, black, black,
+                white, white, black, black,
+                white, white, black, black}, 4, 4);
+        float u = 1.0f / 3.0f;
+        int fine = texture.sample(u, 0.5f, texture.mipLevel(0.25f, 0.0f, 0.0f, 0.25f));
+        int coarse = texture.sample(u, 0.5f, texture.mipLevel(0.5f, 0.0f, 0.0f, 0.5f));
+        assertEquals(white, fine);
+
+        float derivative = (float) Math.sqrt(2.0) / 4.0f;
+        float lod = texture.levelOfDetail(derivative, 0.0f, 0.0f, derivative);
+        int blended = texture.sample(u, 0.5f, texture.mipLevel(derivative, 0.0f, 0.0f, derivative));
+        assertEquals(MipmapTexture.lerpColor(fine, coarse, (int) (lod * 256.0f)), blended);
+    }
+
+    @Test
+    public void lerpColorBlendsEachChannel() {
+        assertEquals(0x7F402010, MipmapTexture.lerpColor(0x00000000, 0xFF804020, 128));
+        assertEquals(0xFF804020, MipmapTexture.lerpColor(0x00000000, 0xFF804020, 256));
+        assertEquals(0x12345678, MipmapTexture.lerpColor(0x12345678, 0xFFFFFFFF, 0));
+    }
+}
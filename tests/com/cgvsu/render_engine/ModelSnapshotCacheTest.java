@@ -0,0 +1,65 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ModelSnapshotCacheTest {
+
+    @Test
+    public void reusesCopyUntilModelIsMarkedModified() {
+        Model model = new Model();
+        model.vertices.add(new Vector3f(1, 2, 3));
+        ModelSnapshotCache cache = new ModelSnapshotCache();
+
+        Model first = cache.snapshot(model);
+        assertNotSame(model, first);
+        assertSame(first, cache.snapshot(model));
+
+        // Edits to the live model never reach an already taken copy.
+        model.vertices.get(0).setX(10);
+        assertEquals(1.0f, first.vertices.get(0).getX(), 0.0f);
+
+        model.markModified();
+        Model second = cache.snapshot(model);
+        assertNotSame(first, second);
+        assertEquals(10.0f, second.vertices.get(0).getX(), 0.0f);
+    }
+
+    @Test
+    public void attachesLevelsOfDetailToTheExistingCopy() {
+        Model model = new Model();
+        ModelSnapshotCache cache = new ModelSnapshotCache();
+        model.vertices.add(new Vector3f(1, 2, 3));
+        Model first = cache.snapshot(model);
+
+        Model level = new Model();
+        model.setLevelsOfDetail(List.of(level), model.getVersion());
+        Model second = cache.snapshot(model);
+
+        // The geometry did not change, so it is not copied again.
+        assertSame(first, second);
+        assertEquals(List.of(level), second.getLevelsOfDetail());
+        assertSame(level, second.getLevelsOfDetail().get(0));
+    }
+
+    @Test
+    public void dropsCopiesOfRemovedModels() {
+        Model kept = new Model();
+        Model removed = new Model();
+        ModelSnapshotCache cache = new ModelSnapshotCache();
+        Model keptCopy = cache.snapshot(kept);
+        Model removedCopy = cache.snapshot(removed);
+
+        cache.retainAll(List.of(kept));
+
+        assertSame(keptCopy, cache.snapshot(kept));
+        assertNotSame(removedCopy, cache.snapshot(removed));
+    }
+}
@@ -0,0 +1,74 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.MeshFixtures;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffscreenRendererTest {
+
+    @Test
+    public void offscreenTargetsMatchFrameRender() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderSettings settings = new RenderSettings(false, false, true, 0xFFB0B0B0);
+        List<Model> models = List.of(MeshFixtures.triangle());
+
+        FrameBuffer expected = new FrameBuffer();
+        RenderEngine.renderFrame(camera, models, 32, 32, null, settings, expected);
+
+        OffscreenRenderer renderer = new OffscreenRenderer();
+        int[] pixels = new int[32 * 32];
+        renderer.render(camera, models, null, settings, 32, 32, pixels);
+        assertArrayEquals(expected.getColorBuffer(), pixels);
+
+        IntBuffer buffer = IntBuffer.allocate(32 * 32 + 4);
+        buffer.position(4);
+        renderer.render(camera, models, null, settings, 32, 32, buffer);
+        assertEquals(4, buffer.position());
+        int[] written = new int[32 * 32];
+        buffer.get(written);
+        assertArrayEquals(expected.getColorBuffer(), written);
+
+        IntBuffer heap = IntBuffer.allocate(32 * 32);
+        renderer.render(camera, models, null, settings, 32, 32, heap);
+        assertArrayEquals(expected.getColorBuffer(), heap.array());
+
+        BufferedImage image = renderer.renderImage(camera, models, null, settings, 32, 32);
+        assertArrayEquals(expected.getColorBuffer(), image.getRGB(0, 0, 32, 32, null, 0, 32));
+    }
+
+    @Test
+    public void drawsOnlyTheFramePartOfALongerTarget() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        OffscreenRenderer renderer = new OffscreenRenderer();
+        int[] pixels = new int[8 * 8 + 3];
+        Arrays.fill(pixels, 7);
+
+        renderer.render(camera, List.of(MeshFixtures.triangle()), null, null, 8, 8, pixels);
+
+        assertEquals(0xFF000000, pixels[0]);
+        assertArrayEquals(new int[] {7, 7, 7}, Arrays.copyOfRange(pixels, 8 * 8, pixels.length));
+    }
+
+    @Test
+    public void rejectsInvalidTargets() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        OffscreenRenderer renderer = new OffscreenRenderer();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> renderer.render(camera, List.of(), null, null, 8, 8, new int[63]));
+        assertThrows(IllegalArgumentException.class,
+                () -> renderer.render(camera, List.of(), null, null, 0, 8, new int[64]));
+        assertThrows(IllegalArgumentException.class,
+                () -> renderer.render(camera, List.of(), null, null, 8, 8, IntBuffer.allocate(63)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+
+import java.util.Random;
+
+public final class RasterizerBenchmark {
+    // Not a test: run by hand after `mvn test-compile` with
+    //   java -cp target/classes:target/test-classes com.cgvsu.render_engine.RasterizerBenchmark
+    // Rasterizes 20k random depth-tested triangles of a few sizes into a 1920x1080 buffer and prints the best
+    // and worst time of the measured rounds.
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int TRIANGLES = 20_000;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private RasterizerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] colorBuffer = new int[WIDTH * HEIGHT];
+        float[] depthBuffer = new float[WIDTH * HEIGHT];
+        for (int size : new int[] {10, 50, 200}) {
+            Rasterizer.Vertex[] vertices = randomTriangles(size, new Random(size));
+            for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+                drawAll(vertices, colorBuffer, depthBuffer);
+            }
+            long best = Long.MAX_VALUE;
+            long worst = 0;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                long start = System.nanoTime();
+                drawAll(vertices, colorBuffer, depthBuffer);
+                long elapsed = System.nanoTime() - start;
+                best = Math.min(best, elapsed);
+                worst = Math.max(worst, elapsed);
+            }
+            System.out.printf("~%d px triangles: %.1f-%.1f ms%n", size, best / 1e6, worst / 1e6);
+        }
+    }
+
+    private static void drawAll(Rasterizer.Vertex[] vertices, int[] colorBuffer, float[] depthBuffer) {
+        Rasterizer.clearBuffers(WIDTH, HEIGHT, colorBuffer, depthBuffer, 0xFF000000);
+        for (int i = 0; i < vertices.length; i += 3) {
+            Rasterizer.rasterizeTriangle(
+                    vertices[i], vertices[i + 1], vertices[i + 2], WIDTH, HEIGHT, colorBuffer, depthBuffer,
+                    0xFFB0B0B0, null, null);
+        }
+    }
+
+    private static Rasterizer.Vertex[] randomTriangles(int size, Random random) {
+        // Corners within size pixels of a random center, so the edge length is about size.
+        Rasterizer.Vertex[] vertices = new Rasterizer.Vertex[TRIANGLES * 3];
+        for (int triangle = 0; triangle < TRIANGLES; triangle++) {
+            float centerX = random.nextFloat() * WIDTH;
+            float centerY = random.nextFloat() * HEIGHT;
+            for (int corner = 0; corner < 3; corner++) {
+                float x = centerX + (random.nextFloat() - 0.5f) * size;
+                float y = centerY + (random.nextFloat() - 0.5f) * size;
+                vertices[triangle * 3 + corner] = new Rasterizer.Vertex(
+                        x, y, random.nextFloat(), new Vector3f(x, y, 0), null, null);
+            }
+        }
+        return vertices;
+    }
+}
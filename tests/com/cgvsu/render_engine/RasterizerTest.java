@@ -1,8 +1,11 @@
 package com.cgvsu.render_engine;
 
+import com.cgvsu.math.vectors.Vector2f;
 import com.cgvsu.math.vectors.Vector3f;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class RasterizerTest {
@@ -51,6 +54,68 @@ public class RasterizerTest {
         assertEquals(0xFF0000FF, colorBuffer[index]);
     }
 
+    @Test
+    public void depthPrePassShadesEachVisiblePixelOnce() {
+        int width = 16;
+        int height = 16;
+        int[] samples = new int[1];
+        TextureSampler counter = (u, v) -> {
+            samples[0]++;
+            return 0xFF00FF00;
+        };
+        Vector2f uv = new Vector2f(0, 0);
+        // Three full-screen layers submitted back to front: the worst case for single-pass shading.
+        Rasterizer.Vertex[] layers = new Rasterizer.Vertex[18];
+        float[] layerDepths = {0.9f, 0.6f, 0.3f};
+        for (int layer = 0; layer < 3; layer++) {
+            float z = layerDepths[layer];
+            layers[layer * 6] = new Rasterizer.Vertex(0, 0, z, new Vector3f(), null, uv);
+            layers[layer * 6 + 1] = new Rasterizer.Vertex(16, 0, z, new Vector3f(), null, uv);
+            layers[layer * 6 + 2] = new Rasterizer.Vertex(16, 16, z, new Vector3f(), null, uv);
+            layers[layer * 6 + 3] = new Rasterizer.Vertex(0, 0, z, new Vector3f(), null, uv);
+            layers[layer * 6 + 4] = new Rasterizer.Vertex(16, 16, z, new Vector3f(), null, uv);
+            layers[layer * 6 + 5] = new Rasterizer.Vertex(0, 16, z, new Vector3f(), null, uv);
+        }
+
+        int[] colorBuffer = new int[width * height];
+        float[] depthBuffer = new float[width * height];
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, 0xFF000000);
+        for (DepthPass pass : new DepthPass[] {DepthPass.DEPTH_ONLY, DepthPass.SHADE_EQUAL}) {
+            for (int i = 0; i < layers.length; i += 3) {
+                Rasterizer.rasterizeTriangle(
+                        layers[i], layers[i + 1], layers[i + 2], width, height, colorBuffer, depthBuffer,
+                        0xFFFF0000, counter, null, null, null, pass, false, 0, 0, width - 1, height - 1);
+            }
+        }
+
+        assertEquals(width * height, samples[0]);
+        assertEquals(0.3f, depthBuffer[5 * width + 7], 0.0f);
+        assertEquals(0xFF00FF00, colorBuffer[5 * width + 7]);
+    }
+
+    @Test
+    public void lightingFacesTowardsAndAwayFromLight() {
+        int width = 8;
+        int height = 8;
+        Vector3f normal = new Vector3f(0, 0, 1);
+        Rasterizer.Vertex v0 = new Rasterizer.Vertex(0, 0, 0.5f, new Vector3f(), normal, null);
+        Rasterizer.Vertex v1 = new Rasterizer.Vertex(8, 0, 0.5f, new Vector3f(), normal, null);
+        Rasterizer.Vertex v2 = new Rasterizer.Vertex(8, 8, 0.5f, new Vector3f(), normal, null);
+        int index = 6 + 2 * width;
+
+        int[] colorBuffer = new int[width * height];
+        float[] depthBuffer = new float[width * height];
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, 0xFF000000);
+        Rasterizer.rasterizeTriangle(
+                v0, v1, v2, width, height, colorBuffer, depthBuffer, 0xFF808080, null, new Vector3f(0, 0, 5));
+        assertEquals(Rasterizer.applyLighting(0xFF808080, Rasterizer.lightIntensity(1.0f)), colorBuffer[index]);
+
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, 0xFF000000);
+        Rasterizer.rasterizeTriangle(
+                v0, v1, v2, width, height, colorBuffer, depthBuffer, 0xFF808080, null, new Vector3f(0, 0, -5));
+        assertEquals(Rasterizer.applyLighting(0xFF808080, Rasterizer.lightIntensity(0.0f)), colorBuffer[index]);
+    }
+
     @Test
     public void lineRasterizationUsesDepth() {
         int width = 5;
@@ -70,4 +135,102 @@ public class RasterizerTest {
         int index = 2 + 2 * width;
         assertEquals(0xFF00FF00, colorBuffer[index]);
     }
+
+    @Test
+    public void triangleMipLevelGetsScreenSpaceUvDerivatives() {
+        float[] derivatives = new float[4];
+        TextureSampler recording = new TextureSampler() {
+            @Override
+            public int sample(float u, float v) {
+                return 0;
+            }
+
+            @Override
+            public int mipLevel(float duDx, float dvDx, float duDy, float dvDy) {
+                derivatives[0] = duDx;
+                derivatives[1] = dvDx;
+                derivatives[2] = duDy;
+                derivatives[3] = dvDy;
+                return 0;
+            }
+        };
+        Rasterizer.Vertex v0 = new Rasterizer.Vertex(0, 0, 0.5f, new Vector3f(), null, new Vector2f(0, 0));
+        Rasterizer.Vertex v1 = new Rasterizer.Vertex(10, 0, 0.5f, new Vector3f(), null, new Vector2f(1, 0));
+        Rasterizer.Vertex v2 = new Rasterizer.Vertex(0, 20, 0.5f, new Vector3f(), null, new Vector2f(0, 1));
+
+        Rasterizer.triangleMipLevel(recording, v0, v1, v2);
+
+        assertEquals(0.1f, derivatives[0], 1e-6f);
+        assertEquals(0.0f, derivatives[1], 1e-6f);
+        assertEquals(0.0f, derivatives[2], 1e-6f);
+        assertEquals(0.05f, derivatives[3], 1e-6f);
+    }
+
+    @Test
+    public void clippedLineMatchesUnclippedLineInsideClipRectangle() {
+        // The clip range is computed up front; it must select exactly the pixels a full walk would write there.
+        int width = 64;
+        int height = 48;
+        Random random = new Random(3);
+        for (int line = 0; line < 500; line++) {
+            float x0 = random.nextFloat() * 200 - 70;
+            float y0 = random.nextFloat() * 150 - 50;
+            float x1 = random.nextFloat() * 200 - 70;
+            float y1 = random.nextFloat() * 150 - 50;
+            int[] fullColor = new int[width * height];
+            float[] fullDepth = new float[width * height];
+            int[] clippedColor = new int[width * height];
+            float[] clippedDepth = new float[width * height];
+            Rasterizer.clearBuffers(width, height, fullColor, fullDepth, 0);
+            Rasterizer.clearBuffers(width, height, clippedColor, clippedDepth, 0);
+
+            Rasterizer.rasterizeLine(x0, y0, 0.5f, x1, y1, 0.5f, width, height, fullColor, fullDepth, null, 1,
+                    0, 0, width - 1, height - 1);
+            Rasterizer.rasterizeLine(x0, y0, 0.5f, x1, y1, 0.5f, width, height, clippedColor, clippedDepth, null, 1,
+                    10, 7, 40, 30);
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    boolean inside = x >= 10 && x <= 40 && y >= 7 && y <= 30;
+                    assertEquals(inside ? fullColor[y * width + x] : 0, clippedColor[y * width + x]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sharedEdgeIsCoveredExactlyOnce() {
+        // Corners sit on pixel centers, so the outer and the diagonal edges pass exactly through samples.
+        assertEquals(64, countCoverageOfSplitQuad(0.5f, 0.5f, 8.5f, 8.5f));
+        assertEquals(54, countCoverageOfSplitQuad(1.3f, 1.7f, 9.6f, 8.2f));
+    }
+
+    private static int countCoverageOfSplitQuad(float left, float top, float right, float bottom) {
+        int width = 12;
+        int height = 12;
+        int[] colorBuffer = new int[width * height];
+        float[] depthBuffer = new float[width * height];
+        Rasterizer.clearBuffers(width, height, colorBuffer, depthBuffer, 0xFF000000);
+
+        int[] samples = new int[1];
+        TextureSampler counter = (u, v) -> {
+            samples[0]++;
+            return 0xFFFFFFFF;
+        };
+        Vector2f uv = new Vector2f(0, 0);
+        Rasterizer.Vertex topLeft = new Rasterizer.Vertex(left, top, 0.5f, new Vector3f(), null, uv);
+        Rasterizer.Vertex topRight = new Rasterizer.Vertex(right, top, 0.5f, new Vector3f(), null, uv);
+        Rasterizer.Vertex bottomRight = new Rasterizer.Vertex(right, bottom, 0.5f, new Vector3f(), null, uv);
+        // The second triangle is nearer, so a doubly covered pixel would pass the depth test and be counted twice.
+        Rasterizer.Vertex nearTopLeft = new Rasterizer.Vertex(left, top, 0.4f, new Vector3f(), null, uv);
+        Rasterizer.Vertex nearBottomLeft = new Rasterizer.Vertex(left, bottom, 0.4f, new Vector3f(), null, uv);
+        Rasterizer.Vertex nearBottomRight = new Rasterizer.Vertex(right, bottom, 0.4f, new Vector3f(), null, uv);
+        // Opposite windings on purpose: the fill rule must not depend on orientation.
+        Rasterizer.rasterizeTriangle(
+                topLeft, topRight, bottomRight, width, height, colorBuffer, depthBuffer, 0xFFFF0000, counter, null);
+        Rasterizer.rasterizeTriangle(
+                nearTopLeft, nearBottomLeft, nearBottomRight, width, height, colorBuffer, depthBuffer, 0xFFFF0000,
+                counter, null);
+        return samples[0];
+    }
 }
@@ -0,0 +1,114 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.NormalsCalculator;
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import com.cgvsu.objreader.ObjReader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RenderEngineTest {
+
+    @Test
+    public void levelOfDetailGetsCoarserWithDistance() {
+        Model full = new Model();
+        full.vertices.add(new Vector3f(-1, -1, 0));
+        full.vertices.add(new Vector3f(1, -1, 0));
+        full.vertices.add(new Vector3f(0, 1, 0));
+        Model fine = withTriangles(2000);
+        Model coarse = withTriangles(200);
+        full.setLevelsOfDetail(List.of(fine, coarse), full.getVersion());
+        float fov = (float) Math.toRadians(60);
+
+        // Inside the bounding sphere the full model is always used.
+        assertSame(full, RenderEngine.selectLevelOfDetail(full, new Vector3f(0, 0, 0.5f), fov, 1000));
+        assertSame(full, RenderEngine.selectLevelOfDetail(full, new Vector3f(0, 0, 3), fov, 1000));
+        assertSame(fine, RenderEngine.selectLevelOfDetail(full, new Vector3f(0, 0, 40), fov, 1000));
+        assertSame(coarse, RenderEngine.selectLevelOfDetail(full, new Vector3f(0, 0, 200), fov, 1000));
+    }
+
+    @Test
+    public void sharedFrameBufferIsKeptPerThread() throws InterruptedException {
+        FrameBuffer[] other = new FrameBuffer[1];
+        Thread thread = new Thread(() -> other[0] = RenderEngine.sharedFrameBuffer());
+        thread.start();
+        thread.join();
+
+        assertSame(RenderEngine.sharedFrameBuffer(), RenderEngine.sharedFrameBuffer());
+        assertNotSame(RenderEngine.sharedFrameBuffer(), other[0]);
+    }
+
+    @Test
+    public void litFramesMatchAcrossPathsAndAllocateNothingWhenRepeated() {
+        // Two overlapping lit meshes, so the pre-pass reuses two meshes' transforms in its shading pass. No face
+        // planes are shared: an exact depth tie would resolve differently with the pre-pass.
+        Camera camera = new Camera(new Vector3f(0.3f, 0.2f, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        List<Model> meshes = List.of(pyramid(0, 0, 0), pyramid(0.3f, 0.5f, -0.7f));
+        RenderSettings single = new RenderSettings(false, false, true, 0xFFB0B0B0);
+        RenderSettings prePass = new RenderSettings(single);
+        prePass.setDepthPrePass(true);
+        RenderSettings tiled = new RenderSettings(single);
+        tiled.setParallelRasterization(true);
+
+        FrameBuffer expected = new FrameBuffer();
+        RenderEngine.renderFrame(camera, meshes, 64, 64, null, single, expected);
+        for (RenderSettings settings : List.of(single, prePass, tiled)) {
+            FrameBuffer frameBuffer = new FrameBuffer();
+            RenderEngine.renderFrame(camera, meshes, 64, 64, null, settings, frameBuffer);
+            long allocations = frameBuffer.getAllocationCount();
+            RenderEngine.renderFrame(camera, meshes, 64, 64, null, settings, frameBuffer);
+
+            assertArrayEquals(expected.getColorBuffer(), frameBuffer.getColorBuffer());
+            assertEquals(allocations, frameBuffer.getAllocationCount());
+        }
+    }
+
+    @Test
+    public void triangleReachingFarOffScreenIsStillDrawn() {
+        // The third corner is just in front of the near plane and far to the side, so it projects about
+        // 4.4 million pixels right of the view: outside the guard band, so it must be clipped, not dropped.
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-1, -1, 0));
+        model.vertices.add(new Vector3f(-1, 1, 0));
+        model.vertices.add(new Vector3f(30000, 0, 4.89f));
+        Polygon triangle = new Polygon();
+        triangle.setVertexIndices(new ArrayList<>(Arrays.asList(0, 1, 2)));
+        model.polygons.add(triangle);
+
+        FrameBuffer frameBuffer = new FrameBuffer();
+        RenderEngine.renderFrame(camera, List.of(model), 32, 32, null,
+                new RenderSettings(false, false, false, 0xFFB0B0B0), frameBuffer);
+
+        assertEquals(0xFFB0B0B0, frameBuffer.getColorBuffer()[16 * 32 + 16]);
+    }
+
+    private static Model pyramid(float dx, float dy, float dz) {
+        Model model = ObjReader.read("v -1 -1 0\nv 1 -1 0\nv 1 1 0\nv -1 1 0\nv 0 0 1\n"
+                + "f 1 2 5\nf 2 3 5\nf 3 4 5\nf 4 1 5\n");
+        for (Vector3f vertex : model.vertices) {
+            vertex.set(vertex.getX() + dx, vertex.getY() + dy, vertex.getZ() + dz);
+        }
+        NormalsCalculator.recalculateNormals(model);
+        return model;
+    }
+
+    private static Model withTriangles(int count) {
+        Model model = new Model();
+        for (int i = 0; i < count; i++) {
+            Polygon triangle = new Polygon();
+            triangle.setVertexIndices(new ArrayList<>(Arrays.asList(0, 1, 2)));
+            model.polygons.add(triangle);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,89 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.BoundingSphere;
+import com.cgvsu.model.MeshFixtures;
+import com.cgvsu.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RenderLoopTest {
+
+    @Test
+    public void completedFrameMatchesDirectRender() throws InterruptedException {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderSettings settings = new RenderSettings(false, false, true, 0xFFB0B0B0);
+        List<Model> models = List.of(MeshFixtures.triangle());
+
+        FrameBuffer expected = new FrameBuffer();
+        RenderEngine.renderFrame(camera, models, 32, 32, null, settings, expected);
+
+        try (RenderLoop renderLoop = new RenderLoop()) {
+            assertNull(renderLoop.pollFrame());
+            renderLoop.submit(new SceneSnapshot(camera, models, null, settings, 32, 32));
+            FrameBuffer frame = awaitFrame(renderLoop);
+
+            assertArrayEquals(expected.getColorBuffer(), frame.getColorBuffer());
+            // Each completed frame is handed out once.
+            assertNull(renderLoop.pollFrame());
+        }
+    }
+
+    @Test
+    public void errorInAFrameIsReportedAndLaterFramesStillRender() throws InterruptedException {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderSettings settings = new RenderSettings(false, false, true, 0xFFB0B0B0);
+        Model broken = new Model() {
+            @Override
+            public BoundingSphere getBoundingSphere() {
+                throw new OutOfMemoryError("test");
+            }
+        };
+        BlockingQueue<Throwable> errors = new LinkedBlockingQueue<>();
+
+        try (RenderLoop renderLoop = new RenderLoop(errors::add)) {
+            renderLoop.submit(new SceneSnapshot(camera, List.of(broken), null, settings, 32, 32));
+            assertInstanceOf(OutOfMemoryError.class, errors.poll(10, TimeUnit.SECONDS));
+
+            renderLoop.submit(new SceneSnapshot(camera, List.of(MeshFixtures.triangle()), null, settings, 32, 32));
+            awaitFrame(renderLoop);
+        }
+    }
+
+    @Test
+    public void snapshotCopiesMutableState() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFFB0B0B0);
+        SceneSnapshot snapshot = new SceneSnapshot(camera, List.of(), null, settings, 8, 8);
+
+        camera.setPosition(new Vector3f(1, 2, 3));
+        settings.setDrawWireframe(true);
+
+        assertNotSame(camera, snapshot.getCamera());
+        assertEquals(5.0f, snapshot.getCamera().getPosition().getZ(), 0.0f);
+        assertFalse(snapshot.getSettings().isDrawWireframe());
+    }
+
+    private static FrameBuffer awaitFrame(RenderLoop renderLoop) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        FrameBuffer frame = renderLoop.pollFrame();
+        while (frame == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            frame = renderLoop.pollFrame();
+        }
+        assertNotNull(frame);
+        return frame;
+    }
+}
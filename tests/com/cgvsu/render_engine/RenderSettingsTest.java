@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RenderSettingsTest {
@@ -30,4 +31,68 @@ public class RenderSettingsTest {
         settings.setBaseColor(0xFFAABBCC);
         assertEquals(0xFFAABBCC, settings.getBaseColor());
     }
+
+    @Test
+    public void parallelRasterizationIsOffByDefault() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        assertFalse(settings.isParallelRasterization());
+        settings.setParallelRasterization(true);
+        assertTrue(settings.isParallelRasterization());
+    }
+
+    @Test
+    public void cullingIsOffByDefault() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        assertEquals(CullMode.NONE, settings.getCullMode());
+        settings.setCullMode(CullMode.BACK);
+        assertEquals(CullMode.BACK, settings.getCullMode());
+        settings.setCullMode(null);
+        assertEquals(CullMode.NONE, settings.getCullMode());
+    }
+
+    @Test
+    public void depthPrePassIsOffByDefault() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        assertFalse(settings.isDepthPrePass());
+        settings.setDepthPrePass(true);
+        assertTrue(settings.isDepthPrePass());
+    }
+
+    @Test
+    public void deferredShadingIsOffByDefault() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        assertFalse(settings.isDeferredShading());
+        settings.setDeferredShading(true);
+        assertTrue(settings.isDeferredShading());
+    }
+
+    @Test
+    public void vectorRasterizationIsOffByDefault() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        assertFalse(settings.isVectorRasterization());
+        settings.setVectorRasterization(true);
+        assertTrue(settings.isVectorRasterization());
+    }
+
+    @Test
+    public void adaptiveResolutionIsOffByDefault() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        assertFalse(settings.isAdaptiveResolution());
+        assertEquals(16.0f, settings.getFrameBudgetMillis(), 0.0f);
+        settings.setAdaptiveResolution(true);
+        settings.setFrameBudgetMillis(33.0f);
+        RenderSettings copy = new RenderSettings(settings);
+        assertTrue(copy.isAdaptiveResolution());
+        assertEquals(33.0f, copy.getFrameBudgetMillis(), 0.0f);
+        assertThrows(IllegalArgumentException.class, () -> settings.setFrameBudgetMillis(0.0f));
+    }
+
+    @Test
+    public void settersBumpVersion() {
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFF112233);
+        long version = settings.getVersion();
+        settings.setUseLighting(true);
+        settings.setCullMode(CullMode.BACK);
+        assertEquals(version + 2, settings.getVersion());
+    }
 }
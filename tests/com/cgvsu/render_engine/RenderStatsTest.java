@@ -0,0 +1,132 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import com.cgvsu.model.Model;
+import com.cgvsu.model.Polygon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RenderStatsTest {
+
+    @Test
+    public void countsModelsTrianglesAndPixels() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFFB0B0B0);
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-1, -1, 0));
+        model.vertices.add(new Vector3f(1, -1, 0));
+        model.vertices.add(new Vector3f(0, 1, 0));
+        model.vertices.add(new Vector3f(-100, 0, 0));
+        model.vertices.add(new Vector3f(-101, 0, 0));
+        model.vertices.add(new Vector3f(-100, 1, 0));
+        addTriangle(model, 0, 1, 2);
+        // Two corners coincide: no area.
+        addTriangle(model, 0, 1, 1);
+        // Far to the left of the view.
+        addTriangle(model, 3, 4, 5);
+        Model behind = new Model();
+        behind.vertices.add(new Vector3f(0, 0, 50));
+        behind.vertices.add(new Vector3f(1, 0, 50));
+        behind.vertices.add(new Vector3f(0, 1, 50));
+        addTriangle(behind, 0, 1, 2);
+
+        FrameBuffer frameBuffer = new FrameBuffer();
+        RenderStats stats = RenderEngine.renderFrame(
+                camera, List.of(model, behind), 32, 32, null, settings, frameBuffer);
+
+        assertSame(stats, frameBuffer.getStats());
+        assertEquals(2, stats.getModelsSubmitted());
+        assertEquals(1, stats.getModelsCulled());
+        assertEquals(3, stats.getTrianglesSubmitted());
+        assertEquals(1, stats.getTrianglesCulled());
+        assertEquals(1, stats.getTrianglesDegenerate());
+        long covered = 0;
+        for (int color : frameBuffer.getColorBuffer()) {
+            if (color == 0xFFB0B0B0) {
+                covered++;
+            }
+        }
+        // One visible triangle and no overlap: every written fragment is a covered pixel.
+        assertEquals(covered, stats.getPixelsWritten());
+        assertTrue(stats.getPixelsTested() >= stats.getPixelsWritten());
+        assertEquals(covered / 1024.0, stats.getOverdraw(), 1e-9);
+    }
+
+    @Test
+    public void zeroAreaTrianglesAreDegenerateAndClippedPiecesCanBeCulled() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderSettings settings = new RenderSettings(false, false, false, 0xFFB0B0B0);
+        settings.setCullMode(CullMode.BACK);
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-1, -1, 0));
+        model.vertices.add(new Vector3f(1, -1, 0));
+        model.vertices.add(new Vector3f(0, 1, 0));
+        // Behind the camera: triangles using it are clipped at the near plane.
+        model.vertices.add(new Vector3f(0, 1, 8));
+        addTriangle(model, 0, 1, 2);
+        addTriangle(model, 0, 2, 1);
+        addTriangle(model, 0, 1, 1);
+        addTriangle(model, 0, 1, 3);
+        addTriangle(model, 0, 3, 1);
+
+        RenderStats stats = RenderEngine.renderFrame(
+                camera, List.of(model), 32, 32, null, settings, new FrameBuffer());
+
+        assertEquals(5, stats.getTrianglesSubmitted());
+        assertEquals(2, stats.getTrianglesCulled());
+        assertEquals(1, stats.getTrianglesDegenerate());
+    }
+
+    @Test
+    public void frameTimeIsTheRenderPhasesWithoutPresent() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        RenderStats stats = RenderEngine.renderFrame(camera, List.of(), 16, 16, null, null, new FrameBuffer());
+        long frameNanos = stats.getFrameNanos();
+
+        // Presenting happens later, on another thread, and must not change the frame time.
+        stats.setPresentNanos(1_000_000_000L);
+
+        assertTrue(frameNanos > 0);
+        assertEquals(frameNanos, stats.getFrameNanos());
+        assertEquals(stats.getTransformNanos() + stats.getRasterNanos() + stats.getLightingNanos(), frameNanos);
+    }
+
+    @Test
+    public void tiledPixelCountsMatchSerial() {
+        Camera camera = new Camera(new Vector3f(0, 0, 5), new Vector3f(0, 0, 0), 1.0f, 1.0f, 0.1f, 100f);
+        Model model = new Model();
+        model.vertices.add(new Vector3f(-2, -2, 0));
+        model.vertices.add(new Vector3f(2, -2, 0));
+        model.vertices.add(new Vector3f(0, 2, 0));
+        model.vertices.add(new Vector3f(-2, 2, -1));
+        model.vertices.add(new Vector3f(2, 2, -1));
+        model.vertices.add(new Vector3f(0, -2, -1));
+        addTriangle(model, 0, 1, 2);
+        addTriangle(model, 3, 5, 4);
+        RenderSettings serial = new RenderSettings(false, false, false, 0xFFB0B0B0);
+        RenderSettings tiled = new RenderSettings(serial);
+        tiled.setParallelRasterization(true);
+
+        RenderStats expected = RenderEngine.renderFrame(camera, List.of(model), 200, 150, null, serial,
+                new FrameBuffer());
+        RenderStats actual = RenderEngine.renderFrame(camera, List.of(model), 200, 150, null, tiled,
+                new FrameBuffer());
+
+        assertTrue(expected.getPixelsWritten() > 0);
+        assertEquals(expected.getPixelsTested(), actual.getPixelsTested());
+        assertEquals(expected.getPixelsWritten(), actual.getPixelsWritten());
+        assertEquals(expected.getTrianglesSubmitted(), actual.getTrianglesSubmitted());
+    }
+
+    private static void addTriangle(Model model, int a, int b, int c) {
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(new ArrayList<>(List.of(a, b, c)));
+        model.polygons.add(polygon);
+    }
+}
@@ -0,0 +1,58 @@
+package com.cgvsu.render_engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResolutionScalerTest {
+
+    @Test
+    public void slowFramesLowerScaleDownToMinimum() {
+        ResolutionScaler scaler = new ResolutionScaler();
+        // Cost proportional to the pixel count: 64 ms at full size needs half the resolution for 16 ms.
+        for (int frame = 0; frame < 30; frame++) {
+            float scale = scaler.getScale();
+            scaler.update(scale, 64.0 * scale * scale, 16.0);
+        }
+        assertEquals(0.5f, scaler.getScale(), 0.0f);
+
+        for (int frame = 0; frame < 30; frame++) {
+            scaler.update(scaler.getScale(), 1000.0, 16.0);
+        }
+        assertEquals(ResolutionScaler.MIN_SCALE, scaler.getScale(), 0.0f);
+    }
+
+    @Test
+    public void fastFramesRestoreFullScale() {
+        ResolutionScaler scaler = new ResolutionScaler();
+        scaler.update(1.0f, 200.0, 16.0);
+        assertTrue(scaler.getScale() < 1.0f);
+        for (int frame = 0; frame < 30; frame++) {
+            scaler.update(scaler.getScale(), 2.0, 16.0);
+        }
+        assertEquals(1.0f, scaler.getScale(), 0.0f);
+
+        scaler.update(1.0f, 200.0, 16.0);
+        scaler.reset();
+        assertEquals(1.0f, scaler.getScale(), 0.0f);
+    }
+
+    @Test
+    public void timeIsAttributedToTheRenderedScale() {
+        // Frames drawn at 0.5 that exactly meet the budget settle the scale at 0.5, whatever the desired scale was.
+        ResolutionScaler scaler = new ResolutionScaler();
+        scaler.update(1.0f, 16.0 / (0.55 * 0.55), 16.0);
+        for (int frame = 0; frame < 30; frame++) {
+            scaler.update(0.5f, 16.0, 16.0);
+        }
+        assertEquals(0.5f, scaler.getScale(), 0.0f);
+    }
+
+    @Test
+    public void scaledSizeNeverCollapsesToZero() {
+        assertEquals(160, ResolutionScaler.scaledSize(640, 0.25f));
+        assertEquals(1, ResolutionScaler.scaledSize(2, 0.25f));
+        assertEquals(0, ResolutionScaler.scaledSize(0, 0.5f));
+    }
+}
@@ -0,0 +1,120 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TileRasterizerTest {
+
+    private static final int WIDTH = 203;
+    private static final int HEIGHT = 141;
+
+    @Test
+    public void tiledOutputMatchesSerialOutput() {
+        assertTiledMatchesSerial(false, null, null, false, false, false);
+    }
+
+    @Test
+    public void coarseDepthRejectionDoesNotChangeOutput() {
+        assertTiledMatchesSerial(false, null, null, true, false, false);
+    }
+
+    @Test
+    public void depthPrePassMatchesSingleFilledOutput() {
+        TextureSampler checker = (u, v) -> ((int) (u * 8) + (int) (v * 8)) % 2 == 0 ? 0xFFFFFFFF : 0xFF336699;
+        assertTiledMatchesSerial(false, checker, new Vector3f(10, 20, 30), true, true, false);
+    }
+
+    @Test
+    public void vectorKernelMatchesScalarOutput() {
+        // Surefire starts the JVM with the incubator module, so this really exercises the SIMD path.
+        assertTrue(Rasterizer.VECTOR_KERNEL_AVAILABLE);
+        TextureSampler checker = (u, v) -> ((int) (u * 8) + (int) (v * 8)) % 2 == 0 ? 0xFFFFFFFF : 0xFF336699;
+        assertTiledMatchesSerial(true, checker, new Vector3f(10, 20, 30), true, false, true);
+        assertTiledMatchesSerial(false, checker, new Vector3f(10, 20, 30), true, true, true);
+    }
+
+    @Test
+    public void tiledOutputMatchesSerialOutputWithWireframeTextureAndLighting() {
+        TextureSampler checker = (u, v) -> ((int) (u * 8) + (int) (v * 8)) % 2 == 0 ? 0xFFFFFFFF : 0xFF336699;
+        assertTiledMatchesSerial(true, checker, new Vector3f(10, 20, 30), true, false, false);
+    }
+
+    private static void assertTiledMatchesSerial(
+            boolean wireframe,
+            TextureSampler sampler,
+            Vector3f lightPos,
+            boolean useCoarseDepth,
+            boolean depthPrePass,
+            boolean vectorized) {
+        Rasterizer.Vertex[] triangles = randomTriangles(400, new Random(42));
+
+        int[] serialColor = new int[WIDTH * HEIGHT];
+        float[] serialDepth = new float[WIDTH * HEIGHT];
+        Rasterizer.clearBuffers(WIDTH, HEIGHT, serialColor, serialDepth, 0xFF000000);
+        for (int i = 0; i < triangles.length; i += 3) {
+            Rasterizer.rasterizeTriangle(
+                    triangles[i], triangles[i + 1], triangles[i + 2],
+                    WIDTH, HEIGHT, serialColor, serialDepth, 0xFFB0B0B0, sampler, lightPos);
+        }
+        // As in the engine, edges follow the triangles; they reach far outside the viewport to exercise clipping.
+        Rasterizer.Vertex[] lines = wireframe ? randomLines(300, new Random(7)) : new Rasterizer.Vertex[0];
+        for (int i = 0; i < lines.length; i += 2) {
+            Rasterizer.rasterizeLine(lines[i], lines[i + 1], WIDTH, HEIGHT, serialColor, serialDepth, 0xFFFFFFFF);
+        }
+
+        int[] tiledColor = new int[WIDTH * HEIGHT];
+        float[] tiledDepth = new float[WIDTH * HEIGHT];
+        Rasterizer.clearBuffers(WIDTH, HEIGHT, tiledColor, tiledDepth, 0xFF000000);
+        CoarseDepthBuffer coarseDepth = null;
+        if (useCoarseDepth) {
+            coarseDepth = new CoarseDepthBuffer();
+            coarseDepth.resize(WIDTH, HEIGHT);
+            coarseDepth.clear();
+        }
+        TileRasterizer tileRasterizer = new TileRasterizer(
+                WIDTH, HEIGHT, tiledColor, tiledDepth, coarseDepth, null, 0xFFB0B0B0, sampler, lightPos, depthPrePass, vectorized);
+        for (int i = 0; i < triangles.length; i += 3) {
+            tileRasterizer.addTriangle(triangles[i], triangles[i + 1], triangles[i + 2]);
+        }
+        for (int i = 0; i < lines.length; i += 2) {
+            tileRasterizer.addLine(lines[i], lines[i + 1]);
+        }
+        tileRasterizer.rasterize();
+
+        assertArrayEquals(serialColor, tiledColor);
+        assertArrayEquals(serialDepth, tiledDepth);
+    }
+
+    private static Rasterizer.Vertex[] randomLines(int count, Random random) {
+        Rasterizer.Vertex[] vertices = new Rasterizer.Vertex[count * 2];
+        for (int i = 0; i < vertices.length; i++) {
+            float x = random.nextFloat() * WIDTH * 5 - WIDTH * 2;
+            float y = random.nextFloat() * HEIGHT * 5 - HEIGHT * 2;
+            float z = random.nextFloat();
+            vertices[i] = new Rasterizer.Vertex(x, y, z, new Vector3f(x, y, z), null, null);
+        }
+        return vertices;
+    }
+
+    private static Rasterizer.Vertex[] randomTriangles(int count, Random random) {
+        Rasterizer.Vertex[] vertices = new Rasterizer.Vertex[count * 3];
+        for (int i = 0; i < vertices.length; i++) {
+            float x = random.nextFloat() * (WIDTH + 40) - 20;
+            float y = random.nextFloat() * (HEIGHT + 40) - 20;
+            float z = random.nextFloat();
+            Vector3f normal = new Vector3f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, 1).normalize();
+            vertices[i] = new Rasterizer.Vertex(
+                    x, y, z,
+                    new Vector3f(x, y, z),
+                    normal,
+                    new Vector2f(random.nextFloat(), random.nextFloat()));
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TriangleClipperTest {
+
+    @Test
+    public void outcodesFlagEachViolatedPlane() {
+        assertEquals(0, TriangleClipper.outcode(0, 0, 0, 1));
+        assertEquals(TriangleClipper.OUTSIDE_LEFT | TriangleClipper.OUTSIDE_TOP, TriangleClipper.outcode(-2, 2, 0, 1));
+        assertEquals(TriangleClipper.OUTSIDE_NEAR, TriangleClipper.outcode(0, 0, -2, 1));
+        assertEquals(TriangleClipper.OUTSIDE_FAR, TriangleClipper.outcode(0, 0, 2, 1));
+    }
+
+    @Test
+    public void oneCornerBehindNearPlaneYieldsQuadOnTheNearPlane() {
+        TriangleClipper clipper = new TriangleClipper();
+        clipper.setCorner(0, 0, 0, 0, 1, new Vector3f(0, 0, 0), null);
+        clipper.setCorner(1, 1, 0, 0, 1, new Vector3f(1, 0, 0), null);
+        // Behind the camera: W is negative, so dividing would flip the corner across the screen.
+        clipper.setCorner(2, 0, 1, -3, -1, new Vector3f(0, 1, 0), null);
+
+        assertEquals(4, clipper.clip(100, 100));
+        Rasterizer.Vertex[] corners = clipper.getCorners();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(corners[i].z >= -1.0f - 1e-6f);
+            assertTrue(Float.isFinite(corners[i].x) && Float.isFinite(corners[i].y));
+        }
+        // Unclipped corners project exactly as the vertex cache would.
+        assertEquals(50.0f, corners[0].x, 0.0f);
+        assertEquals(100.0f, corners[1].x, 0.0f);
+    }
+
+    @Test
+    public void cornerFarOffScreenIsClippedToTheGuardBand() {
+        TriangleClipper clipper = new TriangleClipper();
+        clipper.setCorner(0, 0, 0, 0, 1, new Vector3f(0, 0, 0), null);
+        clipper.setCorner(1, 0, 1, 0, 1, new Vector3f(0, 1, 0), null);
+        // In front of the near plane, but its tiny W projects it about 5e9 pixels to the right.
+        clipper.setCorner(2, 1, 0, -1e-7f, 1e-7f, new Vector3f(1, 0, 0), null);
+
+        int count = clipper.clip(100, 100);
+        assertEquals(4, count);
+        Rasterizer.Vertex[] corners = clipper.getCorners();
+        for (int i = 0; i < count; i++) {
+            assertTrue(Rasterizer.isInsideGuardBand(corners[i].x, corners[i].y));
+        }
+        assertEquals(50.0f, corners[0].x, 0.0f);
+    }
+
+    @Test
+    public void triangleFullyBehindNearPlaneIsDropped() {
+        TriangleClipper clipper = new TriangleClipper();
+        clipper.setCorner(0, 0, 0, -2, 1, new Vector3f(), null);
+        clipper.setCorner(1, 1, 0, -2, 1, new Vector3f(), null);
+        clipper.setCorner(2, 0, 1, -2, 1, new Vector3f(), null);
+        assertEquals(0, clipper.clip(100, 100));
+    }
+}
@@ -0,0 +1,72 @@
+package com.cgvsu.render_engine;
+
+import com.cgvsu.math.matrices.Matrix4;
+import com.cgvsu.math.vectors.Vector2f;
+import com.cgvsu.math.vectors.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VertexCacheTest {
+
+    @Test
+    public void matchesPerCornerTransform() {
+        Matrix4 projection = GraphicConveyor.perspective(1.0f, 1.5f, 0.1f, 100f);
+        Matrix4 view = GraphicConveyor.lookAt(new Vector3f(3, 4, 20), new Vector3f(0, 0, 0));
+        Matrix4 mvp = projection.mult(view);
+
+        Random random = new Random(7);
+        List<Vector3f> vertices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            vertices.add(new Vector3f(random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5));
+        }
+
+        VertexCache cache = new VertexCache();
+        cache.transformVertices(vertices, mvp, 640, 480);
+
+        for (int i = 0; i < vertices.size(); i++) {
+            Vector3f ndc = GraphicConveyor.transformToNdc(mvp, vertices.get(i));
+            Vector2f point = GraphicConveyor.vertexToPoint(ndc, 640, 480);
+            assertEquals(point.getX(), cache.getScreenX()[i], 0.0f);
+            assertEquals(point.getY(), cache.getScreenY()[i], 0.0f);
+            assertEquals(ndc.getZ(), cache.getDepth()[i], 0.0f);
+        }
+    }
+
+    @Test
+    public void normalsMatchVectorTransform() {
+        Matrix4 model = GraphicConveyor.rotateScaleTranslate(new Vector3f(), new Vector3f(), new Vector3f(1, 1, 1));
+        List<Vector3f> normals = List.of(new Vector3f(0, 0, 2), new Vector3f(1, -2, 3), new Vector3f());
+
+        VertexCache cache = new VertexCache();
+        cache.transformNormals(normals, model);
+
+        for (int i = 0; i < normals.size(); i++) {
+            Vector3f expected = normals.get(i).normalize();
+            assertEquals(expected.getX(), cache.getNormalX()[i], 0.0f);
+            assertEquals(expected.getY(), cache.getNormalY()[i], 0.0f);
+            assertEquals(expected.getZ(), cache.getNormalZ()[i], 0.0f);
+        }
+    }
+
+    @Test
+    public void reusesStorageForSmallerMeshes() {
+        VertexCache cache = new VertexCache();
+        Matrix4 identity = new Matrix4().identity();
+        List<Vector3f> large = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            large.add(new Vector3f(i, 0, 0));
+        }
+        cache.transformVertices(large, identity, 10, 10);
+        long allocations = cache.getAllocationCount();
+
+        cache.transformVertices(large.subList(0, 4), identity, 10, 10);
+        cache.transformVertices(large, identity, 10, 10);
+
+        assertEquals(allocations, cache.getAllocationCount());
+    }
+}
@@ -1,10 +1,9 @@
 package com.cgvsu.scene;
 
+import com.cgvsu.math.vectors.Vector3f;
 import com.cgvsu.render_engine.Camera;
 import org.junit.jupiter.api.Test;
 
-import javax.vecmath.Vector3f;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -34,4 +33,25 @@ public class CameraManagerTest {
         assertNotNull(manager.getActive());
         assertEquals(1, manager.getCameras().size());
     }
+
+    @Test
+    public void versionNeverRepeatsAfterRemoval() {
+        CameraManager manager = new CameraManager();
+        SceneCamera cam1 = new SceneCamera(
+                new Camera(new Vector3f(0, 0, 1), new Vector3f(), 1, 1, 0.1f, 10), "Camera 1", null);
+        SceneCamera cam2 = new SceneCamera(
+                new Camera(new Vector3f(0, 0, 2), new Vector3f(), 1, 1, 0.1f, 10), "Camera 2", null);
+        manager.add(cam1);
+        manager.add(cam2);
+        manager.setActive(cam2);
+        long version = manager.getVersion();
+
+        cam2.getCamera().movePosition(new Vector3f(1, 0, 0));
+        assertTrue(manager.getVersion() > version);
+        version = manager.getVersion();
+
+        // The removed camera had the largest count; dropping it must still move the total forward.
+        manager.removeActive();
+        assertTrue(manager.getVersion() > version);
+    }
 }
@@ -39,4 +39,14 @@ class SceneModelTest {
         Assertions.assertEquals(0.0f, model.getRotation().getX(), 1e-4);
         Assertions.assertEquals(1.0f, model.getScale().getX(), 1e-4);
     }
+
+    @Test
+    void testVersionTracksTransformAndGeometry() {
+        SceneModel model = new SceneModel(new Model(), "Test", null);
+        long version = model.getVersion();
+        model.translate(new Vector3f(1, 0, 0));
+        Assertions.assertEquals(version + 1, model.getVersion());
+        model.getModel().markModified();
+        Assertions.assertEquals(version + 2, model.getVersion());
+    }
 }